@@ -0,0 +1,152 @@
+import java.util.Arrays;
+
+/**
+ * Reusable breadth first search for augmenting paths in a {@link ResidualNetwork}.
+ * Queue, parent arcs and visited marks are preallocated int arrays. A vertex counts as visited if its stamp
+ * equals the number of the current search, so starting a new search does not clear anything. The arc used
+ * to reach each vertex is recorded, so the path is read off directly. No objects are allocated per search.
+ */
+public class AugmentingPathSearch {
+
+    private final ResidualNetwork residual;
+    private final int[] queue;
+    private final int[] parentArc;      // parentArc[v] = arc through which v was reached in the current search
+    private final int[] visited;        // visited[v] == epoch if v was reached in the current search
+    private int epoch;
+    private int scanned;                // number of vertices whose arcs the last search scanned
+
+    public AugmentingPathSearch(ResidualNetwork residual) {
+        this.residual = residual;
+        int nodes = residual.numberNodes();
+        queue = new int[nodes];
+        parentArc = new int[nodes];
+        visited = new int[nodes];
+    }
+
+
+    /**
+     * Searches a shortest path from source to target along arcs with remaining capacity
+     * @param source number of source vertex
+     * @param target number of target vertex
+     * @return <tt>true</tt> if target is reachable, and <tt>false</tt> otherwise
+     */
+    public boolean search(final int source, final int target) {
+        int nodes = residual.numberNodes();
+        scanned = 0;
+        if (source < 0 || source >= nodes || target < 0 || target >= nodes || source == target) {
+            return false;
+        }
+
+        if (Integer.MAX_VALUE == epoch) {
+            Arrays.fill(visited, 0);
+            epoch = 0;
+        }
+        epoch++;
+
+        int head = 0;
+        int tail = 0;
+        visited[source] = epoch;
+        parentArc[source] = -1;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            scanned++;
+
+            for (int i = residual.first(u); i < residual.first(u + 1); i++) {
+                int a = residual.arc(i);
+                if (residual.residualCapacity(a) <= 0) { // Ignore arcs which have no capacity remaining
+                    continue;
+                }
+
+                int v = residual.head(a);
+                if (epoch == visited[v]) {
+                    continue;
+                }
+                visited[v] = epoch;
+                parentArc[v] = a;
+                if (target == v) {  // Did we find the target?
+                    return true;
+                }
+                queue[tail++] = v;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of vertices whose arcs the last search scanned
+     */
+    public int scanned() {
+        return scanned;
+    }
+
+    /**
+     * After a search which did not reach its target, the scanned vertices are exactly those reachable from the source
+     * @param i position in the search order, less than {@link #scanned()}
+     * @return i-th vertex scanned by the last search
+     */
+    public int scannedVertex(int i) {
+        return queue[i];
+    }
+
+    /**
+     * Was vertex v reached by the last search?
+     * @param v vertex number
+     * @return <tt>true</tt> if v was reached, and <tt>false</tt> otherwise
+     */
+    public boolean reached(int v) {
+        return epoch == visited[v];
+    }
+
+    /**
+     * @param v vertex reached by the last search
+     * @return arc through which v was reached, -1 for the source
+     */
+    public int parentArc(int v) {
+        return parentArc[v];
+    }
+
+    /**
+     * @param target vertex reached by the last search
+     * @param limit upper bound for the result
+     * @return minimum remaining capacity along the path to target, at most limit
+     */
+    public int bottleneck(final int target, final int limit) {
+        int pathFlow = limit;
+        for (int a = parentArc[target]; -1 != a; a = parentArc[residual.tail(a)]) {
+            pathFlow = Math.min(pathFlow, residual.residualCapacity(a));
+        }
+        return pathFlow;
+    }
+
+    /**
+     * Sends flow along the path to target found by the last search
+     * @param target vertex reached by the last search
+     * @param flow amount of flow, must not exceed the bottleneck of the path
+     * @return number of arcs on the path
+     */
+    public int augment(final int target, final int flow) {
+        int length = 0;
+        for (int a = parentArc[target]; -1 != a; a = parentArc[residual.tail(a)]) {
+            residual.push(a, flow);
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * @param target vertex reached by the last search
+     * @return arcs of the path to target in walking order
+     */
+    public int[] path(final int target) {
+        int length = 0;
+        for (int a = parentArc[target]; -1 != a; a = parentArc[residual.tail(a)]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int a = parentArc[target]; -1 != a; a = parentArc[residual.tail(a)]) {
+            path[--length] = a;
+        }
+        return path;
+    }
+}
@@ -2,67 +2,216 @@ import java.util.*;
 
 /**
  * Customized version of http://algs4.cs.princeton.edu/44sp/
+ * Queue based Bellman-Ford algorithm over dense arrays, with Tarjan's subtree disassembly: whenever the distance
+ * of a vertex v improves, the subtree of v in the shortest paths tree is removed. If the improving edge starts
+ * inside that subtree, it closes a negative cycle, which is thus detected immediately.
+ * Without a source vertex, the search starts from a virtual source with an edge of zero costs to every vertex,
+ * so it finds a negative cycle anywhere in the digraph within one run.
  * Created by explicat on 23.01.2015.
  */
 public class BellmanFord {
 
-    private HashMap<Integer, Integer> distTo;               // distTo[v] = distance  of shortest s->v path
-    private HashMap<Integer, DirectedEdge> edgeTo;         // edgeTo[v] = last edge on shortest s->v path
-    private Set<Integer> onQueue;             // onQueue[v] = is v currently on the queue?
-    private Queue<Integer> queue;          // queue of vertices to relax
-    private int relaxCount;                      // number of calls to relax()
-    private Iterable<DirectedEdge> cycle;  // negative cycle (or null if no such cycle)
+    private static final long INFINITY = Integer.MAX_VALUE;
+
+    private final long[] distTo;            // distTo[v] = distance  of shortest s->v path
+    private final DirectedEdge[] edgeTo;    // edgeTo[v] = last edge on shortest s->v path
+    private final boolean[] onQueue;        // onQueue[v] = is v currently on the queue?
+    private final int[] queue;              // circular queue of vertices to relax
+    private int relaxCount;                 // number of successful relaxations
+    private List<DirectedEdge> cycle;       // negative cycle (or null if no such cycle)
+
+    // Edges with capacity left, grouped by tail: first[v] .. first[v + 1] - 1
+    private final int[] first;
+    private final int[] to;
+    private final int[] costs;
+    private final DirectedEdge[] edges;
+
+    // Shortest paths tree as preorder list: next[v] and prev[v] are the neighbours of v, depth[v] its depth.
+    // Index nodes is the virtual source, the root of the tree if there is no source vertex.
+    private final int[] next;
+    private final int[] prev;
+    private final int[] depth;
+    private final boolean[] inTree;
 
     /**
      * Computes a shortest paths tree from <tt>s</tt> to every other vertex in
      * the edge-weighted digraph <tt>G</tt>.
      * @param G the acyclic digraph
      * @param s the source vertex
-     * @throws IllegalArgumentException unless 0 &le; <tt>s</tt> &le; <tt>V</tt> - 1
+     * @throws IllegalArgumentException if <tt>s</tt> or a vertex of <tt>G</tt> is negative, or the vertices are too sparse
      */
     public BellmanFord(Digraph G, int s) {
-        distTo  = new HashMap<>();
-        edgeTo  = new HashMap<>();
-        onQueue = new HashSet<>();
+        this(G, s, SolverListener.NONE);
+    }
 
-        // Initialize all distances to infinity, whereas the start vertex is assigned distance zero
-        for (int node : G.nodes()) {
-            distTo.put(node, Integer.MAX_VALUE);
+    /**
+     * Computes a shortest paths tree from <tt>s</tt> to every other vertex in
+     * the edge-weighted digraph <tt>G</tt>, reporting the number of relaxations to the listener.
+     * @param G the acyclic digraph
+     * @param s the source vertex
+     * @param listener receives the counters of the computation
+     * @throws IllegalArgumentException if <tt>s</tt> or a vertex of <tt>G</tt> is negative, or the vertices are too sparse
+     */
+    public BellmanFord(Digraph G, int s, SolverListener listener) {
+        this(G, s, false, listener);
+    }
+
+    /**
+     * Computes shortest paths from a virtual source, which has an edge of zero costs to every vertex of the
+     * edge-weighted digraph <tt>G</tt>. Thus every negative cycle of <tt>G</tt> is reachable.
+     * @param G the digraph
+     * @throws IllegalArgumentException if a vertex of <tt>G</tt> is negative, or the vertices are too sparse
+     */
+    public BellmanFord(Digraph G) {
+        this(G, SolverListener.NONE);
+    }
+
+    /**
+     * Computes shortest paths from a virtual source, which has an edge of zero costs to every vertex of the
+     * edge-weighted digraph <tt>G</tt>, reporting the number of relaxations to the listener.
+     * @param G the digraph
+     * @param listener receives the counters of the computation
+     * @throws IllegalArgumentException if a vertex of <tt>G</tt> is negative, or the vertices are too sparse
+     */
+    public BellmanFord(Digraph G, SolverListener listener) {
+        this(G, -1, true, listener);
+    }
+
+    // shortest paths from s, or from the virtual source if allSources is set
+    private BellmanFord(Digraph G, int s, boolean allSources, SolverListener listener) {
+        long start = System.nanoTime();
+        int nodes = allSources ? G.vertexSlots() : G.vertexSlots(s);
+        int numberEdges = 0;
+
+        // Copy the edges which have capacity left into arrays
+        first = new int[nodes + 1];
+        for (int v : G.nodes()) {
+            for (DirectedEdge e : G.neighbors(v)) {
+                if (e.capacity() - e.flow() > 0) {
+                    first[v + 1]++;
+                    numberEdges++;
+                }
+            }
+        }
+        for (int v = 0; v < nodes; v++) {
+            first[v + 1] += first[v];
+        }
+        to = new int[numberEdges];
+        costs = new int[numberEdges];
+        edges = new DirectedEdge[numberEdges];
+        int[] position = Arrays.copyOf(first, nodes);
+        for (int v : G.nodes()) {
+            for (DirectedEdge e : G.neighbors(v)) {
+                if (e.capacity() - e.flow() > 0) {   // Ignore edges which have no capacity left
+                    int i = position[v]++;
+                    to[i] = e.to();
+                    costs[i] = e.costs();
+                    edges[i] = e;
+                }
+            }
+        }
+
+        distTo = new long[nodes];
+        edgeTo = new DirectedEdge[nodes];
+        onQueue = new boolean[nodes];
+        queue = new int[nodes];
+        next = new int[nodes + 1];
+        prev = new int[nodes + 1];
+        depth = new int[nodes + 1];
+        inTree = new boolean[nodes + 1];
+        int head = 0;
+        int size = 0;
+        if (allSources) {
+            // Every vertex hangs below the virtual source with distance zero and waits on the queue
+            int last = nodes;
+            for (int v = 0; v < nodes; v++) {
+                depth[v] = 1;
+                inTree[v] = true;
+                prev[v] = last;
+                next[last] = v;
+                last = v;
+                queue[size++] = v;
+                onQueue[v] = true;
+            }
+            next[last] = nodes;
+            prev[nodes] = last;
+        } else {
+            // Initialize all distances to infinity, whereas the start vertex is assigned distance zero
+            Arrays.fill(distTo, INFINITY);
+            distTo[s] = 0;
+            next[s] = s;
+            prev[s] = s;
+            inTree[s] = true;
+            queue[size++] = s;
+            onQueue[s] = true;
         }
-        distTo.put(s, 0);
 
         // Bellman-Ford algorithm
-        queue = new LinkedList<>();
-        queue.add(s);
-        onQueue.add(s);
-        while (!queue.isEmpty() && !hasNegativeCycle()) {
-            int v = queue.remove();
-            onQueue.remove(v);
-            relax(G, v);
+        while (size > 0 && !hasNegativeCycle()) {
+            int v = queue[head];
+            head = (head + 1) % nodes;
+            size--;
+            onQueue[v] = false;
+            if (!inTree[v]) {
+                continue;   // Removed by a subtree disassembly, v will be relaxed again via its new ancestor
+            }
+
+            for (int i = first[v]; i < first[v + 1] && !hasNegativeCycle(); i++) {
+                int w = to[i];
+                if (distTo[w] > distTo[v] + costs[i]) {
+                    relax(i, v, w);
+                    if (!onQueue[w] && !hasNegativeCycle()) {
+                        queue[(head + size++) % nodes] = w;
+                        onQueue[w] = true;
+                    }
+                }
+            }
         }
 
-        assert check(G, s);
+        listener.relaxed(relaxCount);
+        listener.phaseFinished("bellman-ford", System.nanoTime() - start);
+        assert check(s);
     }
 
-    // relax vertex v and put other endpoints on queue if changed
-    private void relax(Digraph G, int v) {
-        for (DirectedEdge e : G.neighbors(v)) {
-            if (e.capacity() - e.flow() <= 0) {
-                continue;   // Ignore edges which have no capacity left
-            }
-            int w = e.to();
-            if (distTo.get(w) > distTo.get(v) + e.costs()) {
-                distTo.put(w, distTo.get(v) + e.costs());
-                edgeTo.put(w, e);
-                if (!onQueue.contains(w)) {
-                    queue.offer(w);
-                    onQueue.add(w);
-                }
-                if (relaxCount++ % G.numberNodes() == 0) {
-                    findNegativeCycle();
+    // improve the distance of w by edge i from v, disassembling the old subtree of w
+    private void relax(int i, int v, int w) {
+        relaxCount++;
+        if (inTree[w]) {
+            // Remove all descendants of w from the tree. Meeting v among them closes a negative cycle.
+            int last = w;
+            for (int x = next[w]; x != w && depth[x] > depth[w]; x = next[x]) {
+                if (x == v) {
+                    findNegativeCycle(i, v, w);
+                    return;
                 }
+                inTree[x] = false;
+                last = x;
+            }
+            if (v == w) {
+                findNegativeCycle(i, v, w);
+                return;
             }
+            next[prev[w]] = next[last];
+            prev[next[last]] = prev[w];
         }
+
+        distTo[w] = distTo[v] + costs[i];
+        edgeTo[w] = edges[i];
+        depth[w] = depth[v] + 1;
+        inTree[w] = true;
+
+        // Insert w into the preorder list right behind its new parent v
+        next[w] = next[v];
+        prev[w] = v;
+        prev[next[v]] = w;
+        next[v] = w;
+    }
+
+    /**
+     * @return number of relaxations which improved the distance of a vertex
+     */
+    public int relaxations() {
+        return relaxCount;
     }
 
     /**
@@ -78,35 +227,34 @@ public class BellmanFord {
      * Returns a negative cycle reachable from the source vertex <tt>s</tt>, or <tt>null</tt>
      * if there is no such cycle.
      * @return a negative cycle reachable from the soruce vertex <tt>s</tt>
-     *    as an iterable of edges, and <tt>null</tt> if there is no such cycle
+     *    as an iterable of edges in walking order, and <tt>null</tt> if there is no such cycle
      */
     public Iterable<DirectedEdge> negativeCycle() {
         return cycle;
     }
 
-    // by finding a cycle in predecessor graph
-    private void findNegativeCycle() {
-        Digraph spt = new Digraph();
-        for (DirectedEdge e : edgeTo.values()) {
-            spt.addEdge(e);
+    // edge i from v to w closes a cycle with the tree path from w down to v
+    private void findNegativeCycle(int i, int v, int w) {
+        LinkedList<DirectedEdge> path = new LinkedList<>();
+        path.addFirst(edges[i]);
+        for (int x = v; x != w; x = edgeTo[x].from()) {
+            path.addFirst(edgeTo[x]);
         }
-
-        EdgeWeightedDirectedCycle finder = new EdgeWeightedDirectedCycle(spt);
-        cycle = finder.cycle();
+        cycle = path;
     }
 
     /**
      * Returns the length of a shortest path from the source vertex <tt>s</tt> to vertex <tt>v</tt>.
      * @param v the destination vertex
      * @return the length of a shortest path from the source vertex <tt>s</tt> to vertex <tt>v</tt>;
-     *    <tt>Double.POSITIVE_INFINITY</tt> if no such path
+     *    <tt>Integer.MAX_VALUE</tt> if no such path
      * @throws UnsupportedOperationException if there is a negative relaxCount cycle reachable
      *    from the source vertex <tt>s</tt>
      */
     public double distTo(int v) {
         if (hasNegativeCycle())
             throw new UnsupportedOperationException("Negative cost cycle exists");
-        return distTo.get(v);
+        return (v < distTo.length) ? distTo[v] : INFINITY;
     }
 
     /**
@@ -116,7 +264,7 @@ public class BellmanFord {
      *    <tt>s</tt> to vertex <tt>v</tt>, and <tt>false</tt> otherwise
      */
     public boolean hasPathTo(int v) {
-        return distTo.get(v) < Integer.MAX_VALUE;
+        return v < distTo.length && distTo[v] < INFINITY;
     }
 
     /**
@@ -132,18 +280,18 @@ public class BellmanFord {
             throw new UnsupportedOperationException("Negative cost cycle exists");
         if (!hasPathTo(v)) return null;
         Stack<DirectedEdge> path = new Stack<DirectedEdge>();
-        for (DirectedEdge e = edgeTo.get(v); e != null; e = edgeTo.get(e.from())) {
+        for (DirectedEdge e = edgeTo[v]; e != null; e = edgeTo[e.from()]) {
             path.push(e);
         }
         return path;
     }
 
     // check optimality conditions: either
-    // (i) there exists a negative cycle reacheable from s
+    // (i) there exists a negative cycle reacheable from s, or anywhere if s is negative
     //     or
     // (ii)  for all edges e = v->w:            distTo[w] <= distTo[v] + e.weight()
     // (ii') for all edges e = v->w on the SPT: distTo[w] == distTo[v] + e.weight()
-    private boolean check(Digraph G, int s) {
+    private boolean check(int s) {
 
         // has a negative cycle
         if (hasNegativeCycle()) {
@@ -161,49 +309,49 @@ public class BellmanFord {
         else {
 
             // check that distTo[v] and edgeTo[v] are consistent
-            if (distTo.get(s) != 0 || edgeTo.get(s) != null) {
+            if (s >= 0 && (distTo[s] != 0 || edgeTo[s] != null)) {
                 System.err.println("distanceTo[s] and edgeTo[s] inconsistent");
                 return false;
             }
 
-            for (Integer v : G.nodes()) {
+            long rootDistance = (s >= 0) ? INFINITY : 0;     // of the vertices without a tree edge
+            for (int v = 0; v < distTo.length; v++) {
                 if (v == s) {
                     continue;
                 }
 
-                if (edgeTo.get(v) == null && distTo.get(v) != Integer.MAX_VALUE) {
+                if (edgeTo[v] == null && distTo[v] != rootDistance) {
                     System.err.println("distTo[] and edgeTo[] inconsistent");
                     return false;
                 }
             }
 
             // check that all edges e = v->w satisfy distTo[w] <= distTo[v] + e.weight()
-            for (Integer v : G.nodes()) {
-                for (DirectedEdge e : G.neighbors(v)) {
-                    if (e.capacity() - e.flow() <= 0) {
-                        continue;   // Ignore edges which have no capacity left
-                    }
+            for (int v = 0; v < distTo.length; v++) {
+                if (distTo[v] == INFINITY) {
+                    continue;
+                }
 
-                    int w = e.to();
-                    if (distTo.get(v) + e.costs() < distTo.get(w)) {
-                        System.err.println("edge " + e + " not relaxed");
+                for (int i = first[v]; i < first[v + 1]; i++) {
+                    if (distTo[v] + costs[i] < distTo[to[i]]) {
+                        System.err.println("edge " + edges[i] + " not relaxed");
                         return false;
                     }
                 }
             }
 
             // check that all edges e = v->w on SPT satisfy distTo[w] == distTo[v] + e.weight()
-            for (Integer w : G.nodes()) {
-                if (edgeTo.get(w) == null) {
+            for (int w = 0; w < distTo.length; w++) {
+                if (edgeTo[w] == null) {
                     continue;
                 }
 
-                DirectedEdge e = edgeTo.get(w);
+                DirectedEdge e = edgeTo[w];
                 int v = e.from();
                 if (w != e.to()) {
                     return false;
                 }
-                if (distTo.get(v) + e.costs() != distTo.get(w)) {
+                if (distTo[v] + e.costs() != distTo[w]) {
                     System.err.println("edge " + e + " on shortest path not tight");
                     return false;
                 }
@@ -216,5 +364,3 @@ public class BellmanFord {
     }
 
 }
-
-
@@ -0,0 +1,137 @@
+import java.nio.IntBuffer;
+
+/**
+ * Immutable compressed-sparse-row representation of a {@link Digraph}.
+ * The edges leaving vertex v occupy the indices first(v) (inclusive) to first(v + 1) (exclusive)
+ * of the parallel arrays to, capacity and costs, so a traversal is a plain index loop
+ * without boxing, hashing or iterator objects.
+ * The arrays are held as int buffers, which wrap heap arrays or refer to a memory-mapped file,
+ * see {@link CompactDigraphFile}.
+ */
+public class CompactDigraph {
+
+    private final int numberNodes;      // vertices are numbered 0 .. numberNodes - 1
+    private final IntBuffer first;      // first[v] = index of the first edge leaving v, first[numberNodes] = number of edges
+    private final IntBuffer to;         // to[e] = head of edge e
+    private final IntBuffer capacity;   // capacity[e] = capacity of edge e
+    private final IntBuffer costs;      // costs[e] = costs per unit of flow on edge e
+
+    /**
+     * Builds the compressed representation from an edge list. Edge i runs from from[i] to to[i].
+     * The edges are grouped by their tail with a counting sort, so construction takes O(V + E).
+     * @param numberNodes number of vertices, all vertex numbers must lie in 0 .. numberNodes - 1
+     * @param from tails of the edges
+     * @param to heads of the edges
+     * @param capacity capacities of the edges
+     * @param costs costs of the edges, or null if the edges have no costs
+     * @throws IllegalArgumentException if the arrays differ in length or a vertex number is out of range
+     */
+    public CompactDigraph(int numberNodes, int[] from, int[] to, int[] capacity, int[] costs) {
+        int numberEdges = from.length;
+        if (to.length != numberEdges || capacity.length != numberEdges || (null != costs && costs.length != numberEdges)) {
+            throw new IllegalArgumentException("from, to, capacity and costs must have same size");
+        }
+
+        this.numberNodes = numberNodes;
+        int[] first = new int[numberNodes + 1];
+        int[] head = new int[numberEdges];
+        int[] capacities = new int[numberEdges];
+        int[] edgeCosts = new int[numberEdges];
+
+        // Count the outgoing edges of every vertex
+        for (int i = 0; i < numberEdges; i++) {
+            checkNode(from[i]);
+            checkNode(to[i]);
+            first[from[i] + 1]++;
+        }
+        for (int v = 0; v < numberNodes; v++) {
+            first[v + 1] += first[v];
+        }
+
+        // Place every edge into the slot range of its tail
+        int[] next = new int[numberNodes];
+        System.arraycopy(first, 0, next, 0, numberNodes);
+        for (int i = 0; i < numberEdges; i++) {
+            int e = next[from[i]]++;
+            head[e] = to[i];
+            capacities[e] = capacity[i];
+            edgeCosts[e] = (null == costs) ? 0 : costs[i];
+        }
+
+        this.first = IntBuffer.wrap(first);
+        this.to = IntBuffer.wrap(head);
+        this.capacity = IntBuffer.wrap(capacities);
+        this.costs = IntBuffer.wrap(edgeCosts);
+    }
+
+    /**
+     * Takes over arrays which are already grouped by tail, as produced by {@link DigraphBuilder}
+     * @param first first[v] = index of the first edge leaving v, first[first.length - 1] = number of edges
+     * @param to heads of the edges
+     * @param capacity capacities of the edges
+     * @param costs costs of the edges
+     */
+    CompactDigraph(int[] first, int[] to, int[] capacity, int[] costs) {
+        this(IntBuffer.wrap(first), IntBuffer.wrap(to), IntBuffer.wrap(capacity), IntBuffer.wrap(costs));
+    }
+
+    /**
+     * Takes over buffers which are already grouped by tail, as read by {@link CompactDigraphFile}.
+     * The buffers are read by absolute index and must not be modified afterwards.
+     */
+    CompactDigraph(IntBuffer first, IntBuffer to, IntBuffer capacity, IntBuffer costs) {
+        this.numberNodes = first.limit() - 1;
+        this.first = first;
+        this.to = to;
+        this.capacity = capacity;
+        this.costs = costs;
+    }
+
+    private void checkNode(int v) {
+        if (v < 0 || v >= numberNodes) {
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (numberNodes - 1));
+        }
+    }
+
+
+    /** Getters **/
+    public int numberNodes() {
+        return numberNodes;
+    }
+
+    public int numberEdges() {
+        return to.limit();
+    }
+
+    /**
+     * @param v vertex number
+     * @return index of the first edge leaving v. The edges of v end at first(v + 1), exclusive.
+     */
+    public int first(int v) {
+        return first.get(v);
+    }
+
+    public int to(int e) {
+        return to.get(e);
+    }
+
+    public int capacity(int e) {
+        return capacity.get(e);
+    }
+
+    public int costs(int e) {
+        return costs.get(e);
+    }
+
+    /**
+     * Passes the end points, capacity and costs of every edge to the visitor, in order of their index.
+     * @param visitor called once per edge
+     */
+    public void forEachEdge(EdgeConsumer visitor) {
+        for (int v = 0; v < numberNodes; v++) {
+            for (int e = first.get(v); e < first.get(v + 1); e++) {
+                visitor.accept(v, to.get(e), capacity.get(e), costs.get(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary on-disk format of a {@link CompactDigraph}, which is memory-mapped and used as the adjacency arrays directly.
+ * Layout, all values little endian 32 bit integers:
+ * <pre>
+ *     magic "CSRG", version, number of vertices n, number of edges m,
+ *     first[0 .. n], to[0 .. m - 1], capacity[0 .. m - 1], costs[0 .. m - 1]
+ * </pre>
+ * Each array is mapped on its own, so a graph may have up to 2^29 edges.
+ */
+public class CompactDigraphFile {
+
+    private static final int MAGIC = 0x47525343;    // "CSRG" read as little endian int
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private CompactDigraphFile() {
+    }
+
+
+    /**
+     * Writes the digraph in the binary format
+     * @param G compact digraph
+     * @param file file to write, is replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CompactDigraph G, Path file) throws IOException {
+        int nodes = G.numberNodes();
+        int edges = G.numberEdges();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(nodes).putInt(edges);
+            for (int v = 0; v <= nodes; v++) {
+                buffer = put(channel, buffer, G.first(v));
+            }
+            for (int e = 0; e < edges; e++) {
+                buffer = put(channel, buffer, G.to(e));
+            }
+            for (int e = 0; e < edges; e++) {
+                buffer = put(channel, buffer, G.capacity(e));
+            }
+            for (int e = 0; e < edges; e++) {
+                buffer = put(channel, buffer, G.costs(e));
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static ByteBuffer put(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) {
+            flush(channel, buffer);
+        }
+        return buffer.putInt(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+
+    /**
+     * Maps a file in the binary format into memory. Nothing is copied onto the heap, the pages are loaded
+     * by the operating system on first access. The mapping stays valid after the file is closed.
+     * @param file file written by {@link #write(CompactDigraph, Path)}
+     * @return compact digraph backed by the mapped file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not in the binary format
+     */
+    public static CompactDigraph map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (MAGIC != header.getInt(0) || VERSION != header.getInt(4)) {
+                throw new IllegalArgumentException(file + " is not a compact digraph file");
+            }
+            int nodes = header.getInt(8);
+            int edges = header.getInt(12);
+            if (nodes < 0 || edges < 0
+                    || channel.size() != HEADER_BYTES + Integer.BYTES * ((long) nodes + 1 + 3L * edges)) {
+                throw new IllegalArgumentException(file + " is truncated or corrupt");
+            }
+
+            long position = HEADER_BYTES;
+            IntBuffer first = map(channel, position, nodes + 1);
+            position += Integer.BYTES * ((long) nodes + 1);
+            IntBuffer to = map(channel, position, edges);
+            position += Integer.BYTES * (long) edges;
+            IntBuffer capacity = map(channel, position, edges);
+            position += Integer.BYTES * (long) edges;
+            IntBuffer costs = map(channel, position, edges);
+            return new CompactDigraph(first, to, capacity, costs);
+        }
+    }
+
+    private static IntBuffer map(FileChannel channel, long position, int length) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, Integer.BYTES * (long) length);
+        return mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+}
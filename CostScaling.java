@@ -0,0 +1,205 @@
+import java.util.Arrays;
+
+/**
+ * Cost scaling push-relabel algorithm of Goldberg and Tarjan for min-cost-flow problems.
+ * <p>
+ * The costs are multiplied by V + 1 and the algorithm keeps the flow epsilon-optimal, i.e. every residual arc
+ * has reduced costs of at least -epsilon. Each refine phase divides epsilon by ALPHA: it saturates all arcs of
+ * negative reduced costs and then pushes the created excesses along admissible arcs, relabeling vertices whose
+ * admissible arcs are used up. Once epsilon reaches 1 the flow is optimal. The number of phases is O(log(VC)).
+ * <p>
+ * Before each phase, price refinement tries to find potentials which make the current flow epsilon-optimal for
+ * the smaller epsilon already. If it succeeds within a few Bellman-Ford passes, the phase is skipped.
+ */
+public class CostScaling {
+
+    private static final int ALPHA = 16;                    // factor by which epsilon shrinks per phase
+    private static final int PRICE_REFINEMENT_PASSES = 4;   // Bellman-Ford passes tried before a refine phase
+
+    private final ResidualNetwork residual;
+    private final int nodes;
+    private final long scale;           // factor V + 1 applied to the costs of the arcs
+    private final long[] potential;     // reduced costs are costs(a) + potential[tail] - potential[head]
+    private final long[] excess;
+    private final int[] current;        // current[v] = position of the next arc of v to try
+    private final int[] queue;          // FIFO queue of active vertices
+    private final boolean[] onQueue;
+    private final long[] distance;      // distance labels of the price refinement
+
+    private CostScaling(ResidualNetwork residual) {
+        this.residual = residual;
+        this.nodes = residual.numberNodes();
+        scale = nodes + 1;
+        potential = new long[nodes];
+        excess = new long[nodes];
+        current = new int[nodes];
+        queue = new int[nodes];
+        onQueue = new boolean[nodes];
+        distance = new long[nodes];
+    }
+
+
+    /**
+     * Determine the minimal costs to send demand flow from source to sink
+     * @param digraph directed graph, which can also contain several edges sharing the same source and sink vertex
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param demand flow which to send through the network
+     * @return minimal costs to send demand through the network
+     * @throws IllegalArgumentException if there is not enough capacity to send demand flow from source to sink
+     */
+    public static int minCostFlow(final Digraph digraph, final int source, final int sink, final int demand) {
+        return (int) minCostFlow(new ResidualNetwork(digraph), source, sink, demand);
+    }
+
+
+    /**
+     * Sends demand flow from source to sink at minimal costs
+     * @param residual residual network, modified by the algorithm
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param demand flow which to send through the network
+     * @return costs of the sent flow
+     * @throws IllegalArgumentException if there is not enough capacity to send demand flow from source to sink
+     */
+    public static long minCostFlow(final ResidualNetwork residual, final int source, final int sink, final int demand) {
+        if (demand <= 0) {
+            return 0;
+        }
+
+        // Start from any feasible flow, the refine phases only ever move excess created by themselves
+        if (Dinic.maxFlow(residual, source, sink, demand) < demand) {
+            throw new IllegalArgumentException("Not enough capacity to send " + demand + " flow from source to sink");
+        }
+
+        CostScaling scaling = new CostScaling(residual);
+        long epsilon = 0;
+        for (int a = 0; a < residual.numberArcs(); a++) {
+            epsilon = Math.max(epsilon, Math.abs(scaling.costs(a)));
+        }
+        while (epsilon > 1) {
+            epsilon = Math.max(1, epsilon / ALPHA);
+            if (!scaling.refinePrices(epsilon)) {
+                scaling.refine(epsilon);
+            }
+        }
+
+        long costs = 0;
+        for (int a = 0; a < residual.numberArcs(); a += 2) {
+            costs += (long) residual.flow(a) * residual.costs(a);
+        }
+        return costs;
+    }
+
+
+    // turns the epsilon * ALPHA-optimal flow into an epsilon-optimal one
+    private void refine(long epsilon) {
+        // Saturate every arc with negative reduced costs, which makes the flow 0-optimal but leaves excesses
+        for (int v = 0; v < nodes; v++) {
+            current[v] = residual.first(v);
+            for (int i = residual.first(v); i < residual.first(v + 1); i++) {
+                int a = residual.arc(i);
+                int capacity = residual.residualCapacity(a);
+                if (capacity > 0 && reducedCosts(a, v) < 0) {
+                    residual.push(a, capacity);
+                    excess[v] -= capacity;
+                    excess[residual.head(a)] += capacity;
+                }
+            }
+        }
+
+        int head = 0;
+        int size = 0;
+        for (int v = 0; v < nodes; v++) {
+            if (excess[v] > 0) {
+                queue[(head + size++) % nodes] = v;
+                onQueue[v] = true;
+            }
+        }
+
+        // Discharge active vertices in FIFO order
+        while (size > 0) {
+            int v = queue[head];
+            head = (head + 1) % nodes;
+            size--;
+            onQueue[v] = false;
+
+            while (excess[v] > 0) {
+                if (current[v] == residual.first(v + 1)) {
+                    relabel(v, epsilon);
+                }
+
+                int a = residual.arc(current[v]);
+                int capacity = residual.residualCapacity(a);
+                if (capacity > 0 && reducedCosts(a, v) < 0) {
+                    int w = residual.head(a);
+                    int delta = (int) Math.min(excess[v], capacity);
+                    residual.push(a, delta);
+                    excess[v] -= delta;
+                    excess[w] += delta;
+                    if (excess[w] > 0 && !onQueue[w]) {
+                        queue[(head + size++) % nodes] = w;
+                        onQueue[w] = true;
+                    }
+                    if (delta < capacity) {
+                        continue;   // Arc stays admissible
+                    }
+                }
+                current[v]++;
+            }
+        }
+    }
+
+    // lowers the potential of v as far as epsilon-optimality allows, which creates an admissible arc
+    private void relabel(int v, long epsilon) {
+        long highest = Long.MIN_VALUE;
+        for (int i = residual.first(v); i < residual.first(v + 1); i++) {
+            int a = residual.arc(i);
+            if (residual.residualCapacity(a) > 0) {
+                highest = Math.max(highest, potential[residual.head(a)] - costs(a));
+            }
+        }
+        potential[v] = highest - epsilon;
+        current[v] = residual.first(v);
+    }
+
+    // price refinement: shortest distances with arc lengths reduced costs + epsilon give epsilon-optimal potentials
+    private boolean refinePrices(long epsilon) {
+        Arrays.fill(distance, 0);
+        boolean changed = true;
+        for (int pass = 0; pass < PRICE_REFINEMENT_PASSES && changed; pass++) {
+            changed = false;
+            for (int v = 0; v < nodes; v++) {
+                for (int i = residual.first(v); i < residual.first(v + 1); i++) {
+                    int a = residual.arc(i);
+                    if (residual.residualCapacity(a) <= 0) {
+                        continue;
+                    }
+                    int w = residual.head(a);
+                    long d = distance[v] + reducedCosts(a, v) + epsilon;
+                    if (d < distance[w]) {
+                        distance[w] = d;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        if (changed) {
+            return false;   // Not converged, the refine phase has to do the work
+        }
+
+        for (int v = 0; v < nodes; v++) {
+            potential[v] += distance[v];
+        }
+        return true;
+    }
+
+    // costs of arc a multiplied by V + 1, computed on the fly to keep no per-arc state besides the network
+    private long costs(int a) {
+        return residual.costs(a) * scale;
+    }
+
+    private long reducedCosts(int a, int tail) {
+        return costs(a) + potential[tail] - potential[residual.head(a)];
+    }
+}
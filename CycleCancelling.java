@@ -3,6 +3,10 @@
  */
 public class CycleCancelling {
 
+    private final Digraph residual;     // residual graph holding the optimal flow
+    private final int costs;            // costs of the optimal flow
+    private int rounds;                 // number of cancelled cycles
+
 //    /**
 //     * Implementation according to http://ww1.ucmss.com/books/LFS/CSREA2006/FCS4906.pdf
 //     * @param diagraph
@@ -104,24 +108,43 @@ public class CycleCancelling {
      * @param source number of source vertex
      * @param sink number of sink vertex
      * @param demand flow which to send through the network
-     * @return minimal costs to send demand through the network
+     * @param minimumMean if <tt>true</tt>, always cancel a cycle of minimum mean costs, which needs a strongly polynomial
+     *    number of rounds. Otherwise cancel the first negative cycle found by {@link BellmanFord} from a virtual
+     *    source, so cycles the source cannot reach are found as well.
      */
-    public static int minCostFlow(Digraph digraph, final int source, final int sink, final int demand) {
+    public CycleCancelling(Digraph digraph, final int source, final int sink, final int demand, final boolean minimumMean) {
+        this(digraph, source, sink, demand, minimumMean, SolverListener.NONE);
+    }
+
+    /**
+     * Cycle cancelling algorithm for min-cost-flow problems, reporting augmentations, negative cycle searches,
+     * cancelled cycles and the time of both phases to the listener.
+     * @param digraph directed graph, which can also contain several edges sharing the same source and sink vertex
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param demand flow which to send through the network
+     * @param minimumMean if <tt>true</tt>, always cancel a cycle of minimum mean costs
+     * @param listener receives the counters of the solve
+     */
+    public CycleCancelling(Digraph digraph, final int source, final int sink, final int demand, final boolean minimumMean,
+                           final SolverListener listener) {
         // Find a valid routing for the demand of flow
-        Digraph residual = FordFulkerson.fordFulkerson(digraph, source, sink, demand);
+        residual = FordFulkerson.fordFulkerson(digraph, source, sink, demand, listener);
 
         // Cancel out negative cycles
-        BellmanFord bellmanFord = new BellmanFord(residual, source);
-        while (bellmanFord.hasNegativeCycle()) {
-            Iterable<DirectedEdge> negativeCyle = bellmanFord.negativeCycle();
+        long start = System.nanoTime();
+        Iterable<DirectedEdge> negativeCycle;
+        while (null != (negativeCycle = findNegativeCycle(residual, minimumMean, listener))) {
             // Find the minimum flow which we can shift
             int pathFlow = Integer.MAX_VALUE;
-            for (DirectedEdge edge : negativeCyle) {
+            int arcs = 0;
+            for (DirectedEdge edge : negativeCycle) {
                 pathFlow = Math.min(pathFlow, (edge.capacity() - edge.flow()));
+                arcs++;
             }
 
             // Augment the flow along the path
-            for (DirectedEdge edge : negativeCyle) {
+            for (DirectedEdge edge : negativeCycle) {
                 if (edge.isResidualEdge()) {
                     // backward edge
                     edge.capacity(edge.capacity() - pathFlow);
@@ -133,8 +156,10 @@ public class CycleCancelling {
                 }
             }
 
-            bellmanFord = new BellmanFord(residual, source);
+            rounds++;
+            listener.cycleCancelled(pathFlow, arcs);
         }
+        listener.phaseFinished("cycle cancelling", System.nanoTime() - start);
 
         // Gather costs
         int costs = 0;
@@ -143,9 +168,61 @@ public class CycleCancelling {
                 costs += edge.flow() * edge.costs();
             }
         }
+        this.costs = costs;
+    }
+
+    // negative cycle to cancel next, or null if there is none
+    private static Iterable<DirectedEdge> findNegativeCycle(Digraph residual, boolean minimumMean,
+                                                            SolverListener listener) {
+        Iterable<DirectedEdge> cycle = null;
+        if (minimumMean) {
+            MinimumMeanCycle minimumMeanCycle = new MinimumMeanCycle(residual);
+            if (minimumMeanCycle.hasCycle() && minimumMeanCycle.costs() < 0) {
+                cycle = minimumMeanCycle.cycle();
+            }
+        } else {
+            cycle = new BellmanFord(residual, listener).negativeCycle();
+        }
+
+        listener.negativeCycleSearched(null != cycle);
+        return cycle;
+    }
+
+
+    /**
+     * @return minimal costs to send demand through the network
+     */
+    public int costs() {
         return costs;
     }
 
+    /**
+     * @return number of negative cycles which have been cancelled
+     */
+    public int rounds() {
+        return rounds;
+    }
+
+    /**
+     * @return residual graph holding the flow of minimal costs
+     */
+    public Digraph residual() {
+        return residual;
+    }
+
+
+    /**
+     * Cycle cancelling algorithm for min-cost-flow problems, cancelling the first negative cycle found in each round.
+     * @param digraph directed graph, which can also contain several edges sharing the same source and sink vertex
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param demand flow which to send through the network
+     * @return minimal costs to send demand through the network
+     */
+    public static int minCostFlow(Digraph digraph, final int source, final int sink, final int demand) {
+        return new CycleCancelling(digraph, source, sink, demand, false).costs();
+    }
+
 
     public static void main(String[] args) {
         // Example
@@ -1,12 +1,19 @@
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Created by explicat on 21.01.2015.
  */
 public class Digraph {
 
+    /** Most unused slots per vertex which arrays indexed by vertex number may contain, see {@link #vertexSlots(int...)} **/
+    public static final int MAX_SPARSITY = 16;
+    private static final int MIN_SLOTS = 1 << 16;      // slots which are always allowed, however few vertices exist
+
     private final Set<Integer> nodes;
     private final Map<Integer, Set<DirectedEdge>> edges;
+    private int numberEdges;
 
     /** Constructors **/
     public Digraph() {
@@ -71,40 +78,181 @@ public class Digraph {
     }
 
 
+    /**
+     * Freezes the digraph into an immutable compressed-sparse-row representation.
+     * The vertices keep their numbers, so the compact digraph has (largest vertex number + 1) vertices.
+     * Digraphs with negative or sparse vertex numbers are frozen by {@link VertexNumbering} instead.
+     * @return compact copy of this digraph. Later modifications of this digraph are not reflected.
+     * @throws IllegalArgumentException if the vertex numbers are negative or too sparse, see {@link #vertexSlots(int...)}
+     */
+    public CompactDigraph compact() {
+        return compact(null);
+    }
+
+    /**
+     * Freezes the digraph like {@link #compact()}, and tells which edge number each edge receives
+     * @param edgeNumbers filled with the number of every edge in the compact digraph, ignored if null
+     * @return compact copy of this digraph. Later modifications of this digraph are not reflected.
+     * @throws IllegalArgumentException if the vertex numbers are negative or too sparse, see {@link #vertexSlots(int...)}
+     */
+    public CompactDigraph compact(Map<DirectedEdge, Integer> edgeNumbers) {
+        int numberNodes = vertexSlots();
+
+        int[] from = new int[numberEdges];
+        int[] to = new int[numberEdges];
+        int[] capacity = new int[numberEdges];
+        int[] costs = new int[numberEdges];
+        int i = 0;
+        for (Set<DirectedEdge> outgoingEdges : edges.values()) {
+            for (DirectedEdge e : outgoingEdges) {
+                from[i] = e.from();
+                to[i] = e.to();
+                capacity[i] = e.capacity();
+                costs[i] = e.costs();
+                i++;
+            }
+        }
+
+        CompactDigraph compact = new CompactDigraph(numberNodes, from, to, capacity, costs);
+        if (null != edgeNumbers) {
+            // The compact digraph groups the edges by tail and keeps their order within each group
+            int[] next = new int[numberNodes];
+            for (int v = 0; v < numberNodes; v++) {
+                next[v] = compact.first(v);
+            }
+            i = 0;
+            for (Set<DirectedEdge> outgoingEdges : edges.values()) {
+                for (DirectedEdge e : outgoingEdges) {
+                    edgeNumbers.put(e, next[from[i++]]++);
+                }
+            }
+        }
+        return compact;
+    }
+
+
+    /**
+     * Number of slots an array indexed by vertex number needs, which is the largest vertex number + 1.
+     * To keep such arrays in proportion to the digraph, the slots may exceed the number of vertices by at most
+     * {@link #MAX_SPARSITY} per vertex, or 65536 in total for small digraphs.
+     * @param extra further vertex numbers to make room for, like a source vertex which has no edges
+     * @return largest vertex number + 1, 0 for an empty digraph
+     * @throws IllegalArgumentException if a vertex number is negative or the vertex numbers are too sparse.
+     *    Such digraphs can be renumbered by {@link VertexNumbering}.
+     */
+    public int vertexSlots(int... extra) {
+        long slots = 0;
+        for (int node : nodes) {
+            if (node < 0) {
+                throw new IllegalArgumentException("vertex " + node + " must not be negative");
+            }
+            slots = Math.max(slots, node + 1L);
+        }
+        for (int node : extra) {
+            if (node < 0) {
+                throw new IllegalArgumentException("vertex " + node + " must not be negative");
+            }
+            slots = Math.max(slots, node + 1L);
+        }
+
+        long allowed = Math.max(MIN_SLOTS, (MAX_SPARSITY + 1L) * (nodes.size() + extra.length));
+        if (slots > allowed) {
+            throw new IllegalArgumentException("largest vertex number " + (slots - 1) + " is too sparse for "
+                    + nodes.size() + " vertices, renumber them with VertexNumbering");
+        }
+        return (int) slots;
+    }
+
+
     /** Getters **/
     public Set<Integer> nodes() {
         return nodes;
     }
 
+    /**
+     * @return view of all edges, backed by the digraph. Iterating costs O(E) time and O(1) extra memory.
+     */
     public Set<DirectedEdge> edges() {
-        HashSet<DirectedEdge> allEdges = new HashSet<>();
-        for (Map.Entry<Integer, Set<DirectedEdge>> edgesByNode : edges.entrySet()) {
-            allEdges.addAll(edgesByNode.getValue());
-        }
-        return allEdges;
+        return new AbstractSet<DirectedEdge>() {
+            @Override
+            public Iterator<DirectedEdge> iterator() {
+                return edgeStream().iterator();
+            }
+
+            @Override
+            public int size() {
+                return numberEdges;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof DirectedEdge && neighbors(((DirectedEdge) o).from()).contains(o);
+            }
+        };
     }
 
     public Set<DirectedEdge> neighbors(int of) {
-        if (!edges.containsKey(of)) {
-            return new HashSet<>();
-        }
-
-        return edges.get(of);
+        Set<DirectedEdge> outgoingEdges = edges.get(of);
+        return (null == outgoingEdges) ? Collections.<DirectedEdge>emptySet() : outgoingEdges;
     }
 
+    /**
+     * @return view of the edges running from vertex from to vertex to, backed by the digraph
+     */
     public Set<DirectedEdge> edges(final int from, final int to) {
-        if (!edges.containsKey(from)) {
-            return new HashSet<>();
+        return new AbstractSet<DirectedEdge>() {
+            @Override
+            public Iterator<DirectedEdge> iterator() {
+                return neighbors(from).stream().filter(e -> to == e.to()).iterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (DirectedEdge e : neighbors(from)) {
+                    if (to == e.to()) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Streams all edges without copying them. The stream splits by source vertex, so it can run in parallel.
+     * @return stream of all edges
+     */
+    public Stream<DirectedEdge> edgeStream() {
+        return edges.values().stream().flatMap(Set::stream);
+    }
+
+    /**
+     * Passes every edge to the visitor, without creating any intermediate collection.
+     * @param visitor called once per edge
+     */
+    public void forEachEdge(Consumer<DirectedEdge> visitor) {
+        for (Set<DirectedEdge> outgoingEdges : edges.values()) {
+            for (DirectedEdge e : outgoingEdges) {
+                visitor.accept(e);
+            }
         }
+    }
 
-        Set<DirectedEdge> edgesFrom = edges.get(from);
-        Set<DirectedEdge> edgesFromTo = new HashSet<>();
-        for (DirectedEdge e : edgesFrom) {
-            if (to == e.to()) {
-                edgesFromTo.add(e);
+    /**
+     * Passes the end points, capacity and costs of every edge to the visitor.
+     * @param visitor called once per edge
+     */
+    public void forEachEdge(EdgeConsumer visitor) {
+        for (Set<DirectedEdge> outgoingEdges : edges.values()) {
+            for (DirectedEdge e : outgoingEdges) {
+                visitor.accept(e.from(), e.to(), e.capacity(), e.costs());
             }
         }
-        return edgesFromTo;
+    }
+
+    public int numberEdges() {
+        return numberEdges;
     }
 
     public int numberNodes() {
@@ -121,6 +269,8 @@ public class Digraph {
             edges.put(from, new HashSet<DirectedEdge>());
         }
         Set<DirectedEdge> outgoingEdges = edges.get(from);
-        outgoingEdges.add(edge);
+        if (outgoingEdges.add(edge)) {
+            numberEdges++;
+        }
     }
 }
@@ -0,0 +1,271 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Builds a {@link CompactDigraph} from an edge list, without the V x V matrices of the {@link Digraph} constructors.
+ * Edges are collected in primitive arrays, sized up front from the expected number of edges, and can be added one
+ * by one or in bulk. On build the edges are grouped by their tail with a counting sort which runs in parallel chunks.
+ * Optionally, parallel edges with equal costs are merged into one edge with the summed capacity.
+ */
+public class DigraphBuilder {
+
+    private static final int MIN_CHUNK = 1 << 16;   // fewest edges worth an own chunk in the parallel build
+
+    private int numberNodes;                // largest vertex number seen + 1
+    private int size;                       // number of edges added so far
+    private int[] from;
+    private int[] to;
+    private int[] capacity;
+    private int[] costs;
+    private boolean mergeParallelEdges;
+
+    public DigraphBuilder() {
+        this(0, 16);
+    }
+
+    /**
+     * @param expectedNodes number of vertices, if known. Vertices beyond are added as they show up.
+     * @param expectedEdges number of edges which will be added, used to size the storage
+     */
+    public DigraphBuilder(int expectedNodes, int expectedEdges) {
+        numberNodes = expectedNodes;
+        int initialCapacity = Math.max(1, expectedEdges);
+        from = new int[initialCapacity];
+        to = new int[initialCapacity];
+        capacity = new int[initialCapacity];
+        costs = new int[initialCapacity];
+    }
+
+
+    /**
+     * @param merge whether edges with the same end points and costs are merged, summing their capacities up to
+     *    Integer.MAX_VALUE
+     * @return this builder
+     */
+    public DigraphBuilder mergeParallelEdges(boolean merge) {
+        this.mergeParallelEdges = merge;
+        return this;
+    }
+
+    public DigraphBuilder addEdge(int from, int to, int capacity) {
+        return addEdge(from, to, capacity, 0);
+    }
+
+    /**
+     * Adds an edge
+     * @param from tail of the edge
+     * @param to head of the edge
+     * @param capacity capacity of the edge
+     * @param costs costs per unit of flow on the edge
+     * @return this builder
+     * @throws IllegalArgumentException if a vertex number is negative
+     */
+    public DigraphBuilder addEdge(int from, int to, int capacity, int costs) {
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("vertex numbers must not be negative");
+        }
+        ensureCapacity(size + 1);
+        this.from[size] = from;
+        this.to[size] = to;
+        this.capacity[size] = capacity;
+        this.costs[size] = costs;
+        size++;
+        numberNodes = Math.max(numberNodes, Math.max(from, to) + 1);
+        return this;
+    }
+
+    /**
+     * Adds all edges of an edge list. Edge i runs from from[i] to to[i].
+     * @param from tails of the edges
+     * @param to heads of the edges
+     * @param capacity capacities of the edges
+     * @param costs costs of the edges, or null if the edges have no costs
+     * @return this builder
+     * @throws IllegalArgumentException if the arrays differ in length or a vertex number is negative
+     */
+    public DigraphBuilder addEdges(int[] from, int[] to, int[] capacity, int[] costs) {
+        int count = from.length;
+        if (to.length != count || capacity.length != count || (null != costs && costs.length != count)) {
+            throw new IllegalArgumentException("from, to, capacity and costs must have same size");
+        }
+
+        ensureCapacity(size + count);
+        for (int i = 0; i < count; i++) {
+            if (from[i] < 0 || to[i] < 0) {
+                throw new IllegalArgumentException("vertex numbers must not be negative");
+            }
+            numberNodes = Math.max(numberNodes, Math.max(from[i], to[i]) + 1);
+        }
+        System.arraycopy(from, 0, this.from, size, count);
+        System.arraycopy(to, 0, this.to, size, count);
+        System.arraycopy(capacity, 0, this.capacity, size, count);
+        if (null != costs) {
+            System.arraycopy(costs, 0, this.costs, size, count);
+        } else {
+            Arrays.fill(this.costs, size, size + count, 0);
+        }
+        size += count;
+        return this;
+    }
+
+    public int numberEdges() {
+        return size;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > from.length) {
+            int newLength = Math.max(required, 2 * from.length);
+            from = Arrays.copyOf(from, newLength);
+            to = Arrays.copyOf(to, newLength);
+            capacity = Arrays.copyOf(capacity, newLength);
+            costs = Arrays.copyOf(costs, newLength);
+        }
+    }
+
+
+    /**
+     * Builds the compact digraph. The edges of each vertex keep the order in which they were added, unless parallel
+     * edges are merged: the edges of each vertex are sorted by head and costs then.
+     * @return compact digraph of all edges added so far
+     */
+    public CompactDigraph build() {
+        final int nodes = numberNodes;
+        final int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_CHUNK));
+        final int chunkSize = (size + chunks - 1) / chunks;
+
+        // Count the edges per tail within each chunk
+        final int[][] offset = new int[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] count = new int[nodes];
+            for (int i = c * chunkSize; i < Math.min(size, (c + 1) * chunkSize); i++) {
+                count[from[i]]++;
+            }
+            offset[c] = count;
+        });
+
+        // Turn the counts into the slot where each chunk places its next edge of each tail
+        final int[] first = new int[nodes + 1];
+        IntStream.range(0, nodes).parallel().forEach(v -> {
+            int total = 0;
+            for (int c = 0; c < chunks; c++) {
+                total += offset[c][v];
+            }
+            first[v + 1] = total;
+        });
+        for (int v = 0; v < nodes; v++) {
+            first[v + 1] += first[v];
+        }
+        IntStream.range(0, nodes).parallel().forEach(v -> {
+            int position = first[v];
+            for (int c = 0; c < chunks; c++) {
+                int count = offset[c][v];
+                offset[c][v] = position;
+                position += count;
+            }
+        });
+
+        // Scatter the edges into their slots
+        final int[] sortedTo = new int[size];
+        final int[] sortedCapacity = new int[size];
+        final int[] sortedCosts = new int[size];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] next = offset[c];
+            for (int i = c * chunkSize; i < Math.min(size, (c + 1) * chunkSize); i++) {
+                int e = next[from[i]]++;
+                sortedTo[e] = to[i];
+                sortedCapacity[e] = capacity[i];
+                sortedCosts[e] = costs[i];
+            }
+        });
+
+        if (!mergeParallelEdges) {
+            return new CompactDigraph(first, sortedTo, sortedCapacity, sortedCosts);
+        }
+        return merge(first, sortedTo, sortedCapacity, sortedCosts);
+    }
+
+    /**
+     * Builds a {@link Digraph} of all edges added so far, for the algorithms working on edge objects
+     * @return digraph of all edges added so far
+     */
+    public Digraph buildDigraph() {
+        Digraph digraph = new Digraph();
+        build().forEachEdge((u, v, c, w) -> digraph.addEdge(new DirectedEdge(u, v, c, w)));
+        return digraph;
+    }
+
+
+    // merges parallel edges of equal costs within the edge range of every vertex
+    private static CompactDigraph merge(final int[] first, final int[] to, final int[] capacity, final int[] costs) {
+        final int nodes = first.length - 1;
+        final int[] merged = new int[nodes + 1];
+        IntStream.range(0, nodes).parallel().forEach(v -> {
+            int lo = first[v];
+            int hi = first[v + 1];
+            sort(to, capacity, costs, lo, hi);
+
+            int last = lo - 1;
+            for (int e = lo; e < hi; e++) {
+                if (last >= lo && to[last] == to[e] && costs[last] == costs[e]) {
+                    capacity[last] = (int) Math.min((long) capacity[last] + capacity[e], Integer.MAX_VALUE);
+                } else {
+                    last++;
+                    to[last] = to[e];
+                    capacity[last] = capacity[e];
+                    costs[last] = costs[e];
+                }
+            }
+            merged[v + 1] = last + 1 - lo;
+        });
+        for (int v = 0; v < nodes; v++) {
+            merged[v + 1] += merged[v];
+        }
+
+        final int[] mergedTo = new int[merged[nodes]];
+        final int[] mergedCapacity = new int[merged[nodes]];
+        final int[] mergedCosts = new int[merged[nodes]];
+        IntStream.range(0, nodes).parallel().forEach(v -> {
+            int count = merged[v + 1] - merged[v];
+            System.arraycopy(to, first[v], mergedTo, merged[v], count);
+            System.arraycopy(capacity, first[v], mergedCapacity, merged[v], count);
+            System.arraycopy(costs, first[v], mergedCosts, merged[v], count);
+        });
+        return new CompactDigraph(merged, mergedTo, mergedCapacity, mergedCosts);
+    }
+
+    // heap sort of the range lo .. hi - 1 of the parallel arrays by head, then costs
+    private static void sort(int[] to, int[] capacity, int[] costs, int lo, int hi) {
+        int n = hi - lo;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(to, capacity, costs, lo, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(to, capacity, costs, lo, lo + end);
+            siftDown(to, capacity, costs, lo, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] to, int[] capacity, int[] costs, int lo, int i, int n) {
+        while (2 * i + 1 < n) {
+            int child = 2 * i + 1;
+            if (child + 1 < n && less(to, costs, lo + child, lo + child + 1)) {
+                child++;
+            }
+            if (!less(to, costs, lo + i, lo + child)) {
+                return;
+            }
+            swap(to, capacity, costs, lo + i, lo + child);
+            i = child;
+        }
+    }
+
+    private static boolean less(int[] to, int[] costs, int a, int b) {
+        return to[a] < to[b] || (to[a] == to[b] && costs[a] < costs[b]);
+    }
+
+    private static void swap(int[] to, int[] capacity, int[] costs, int a, int b) {
+        int t = to[a]; to[a] = to[b]; to[b] = t;
+        t = capacity[a]; capacity[a] = capacity[b]; capacity[b] = t;
+        t = costs[a]; costs[a] = costs[b]; costs[b] = t;
+    }
+}
@@ -0,0 +1,262 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming reader for max-flow (.max) and min-cost-flow (.min) problems in DIMACS format.
+ * The file is read through a direct byte buffer and parsed byte by byte, so no strings are created per line.
+ * Vertices are numbered from 1 in the file and from 0 in the resulting {@link CompactDigraph}.
+ * <pre>
+ *     c comment
+ *     p max n m         or   p min n m
+ *     n id s            or   n id supply
+ *     n id t
+ *     a u v capacity    or   a u v lower capacity costs
+ * </pre>
+ */
+public class Dimacs {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final boolean minCost;
+    private final CompactDigraph graph;
+    private final int source;
+    private final int sink;
+    private final int[] supply;
+
+    private Dimacs(boolean minCost, CompactDigraph graph, int source, int sink, int[] supply) {
+        this.minCost = minCost;
+        this.graph = graph;
+        this.source = source;
+        this.sink = sink;
+        this.supply = supply;
+    }
+
+
+    /**
+     * Reads a problem file
+     * @param file .max or .min file
+     * @return problem read from the file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed, or an arc has a lower bound other than 0
+     */
+    public static Dimacs read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Parser(channel).parse();
+        }
+    }
+
+
+    /** Getters **/
+    public boolean isMinCostFlow() {
+        return minCost;
+    }
+
+    public CompactDigraph graph() {
+        return graph;
+    }
+
+    /**
+     * @return source vertex of a max-flow problem, or -1
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * @return sink vertex of a max-flow problem, or -1
+     */
+    public int sink() {
+        return sink;
+    }
+
+    /**
+     * @param v vertex number
+     * @return supply of v in a min-cost-flow problem, negative for a demand
+     */
+    public int supply(int v) {
+        return supply[v];
+    }
+
+
+    private static class Parser {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private int line = 1;
+        private int pushback = -2;      // byte handed out again by the next call of next(), -2 if none
+
+        Parser(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        Dimacs parse() throws IOException {
+            DigraphBuilder builder = null;
+            boolean minCost = false;
+            int nodes = 0;
+            int source = -1;
+            int sink = -1;
+            int[] supply = null;
+
+            for (int c = skipBlank(); -1 != c; c = skipBlank()) {
+                switch (c) {
+                    case '\n':
+                        line++;
+                        continue;
+                    case 'c':
+                        break;
+                    case 'p':
+                        if (null != builder) {
+                            throw error("duplicate problem line");
+                        }
+                        int kind = skipBlank();
+                        minCost = 'm' == kind && 'i' == next();
+                        skipWord();
+                        nodes = readInt();
+                        int edges = readInt();
+                        builder = new DigraphBuilder(nodes, edges);
+                        supply = minCost ? new int[nodes] : null;
+                        break;
+                    case 'n':
+                        if (null == builder) {
+                            throw error("node line before problem line");
+                        }
+                        int v = readVertex(nodes);
+                        if (minCost) {
+                            supply[v] = readInt();
+                        } else {
+                            int role = skipBlank();
+                            if ('s' == role) {
+                                source = v;
+                            } else if ('t' == role) {
+                                sink = v;
+                            } else {
+                                throw error("node must be s or t");
+                            }
+                        }
+                        break;
+                    case 'a':
+                        if (null == builder) {
+                            throw error("arc line before problem line");
+                        }
+                        int from = readVertex(nodes);
+                        int to = readVertex(nodes);
+                        if (minCost) {
+                            if (0 != readInt()) {
+                                throw error("lower bounds are not supported");
+                            }
+                            int capacity = readInt();
+                            builder.addEdge(from, to, capacity, readInt());
+                        } else {
+                            builder.addEdge(from, to, readInt());
+                        }
+                        break;
+                    default:
+                        throw error("unknown line type '" + (char) c + "'");
+                }
+                skipLine();
+            }
+
+            if (null == builder) {
+                throw error("missing problem line");
+            }
+            return new Dimacs(minCost, builder.build(), source, sink, supply);
+        }
+
+        // next byte, or -1 at the end of the file
+        private int next() throws IOException {
+            if (-2 != pushback) {
+                int c = pushback;
+                pushback = -2;
+                return c;
+            }
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read;
+                do {
+                    read = channel.read(buffer);
+                } while (0 == read);
+                buffer.flip();
+                if (-1 == read) {
+                    return -1;
+                }
+            }
+            return buffer.get();
+        }
+
+        // first byte which is no space or tab, or -1 at the end of the file
+        private int skipBlank() throws IOException {
+            int c;
+            do {
+                c = next();
+            } while (' ' == c || '\t' == c || '\r' == c);
+            return c;
+        }
+
+        private void skipWord() throws IOException {
+            int c;
+            do {
+                c = next();
+            } while (-1 != c && ' ' != c && '\t' != c && '\n' != c);
+            if ('\n' == c) {
+                throw error("unexpected end of line");
+            }
+        }
+
+        private void skipLine() throws IOException {
+            int c;
+            do {
+                c = next();
+            } while (-1 != c && '\n' != c);
+            line++;
+        }
+
+        private int readVertex(int nodes) throws IOException {
+            int v = readInt() - 1;
+            if (v < 0 || v >= nodes) {
+                throw error("vertex " + (v + 1) + " is not between 1 and " + nodes);
+            }
+            return v;
+        }
+
+        private int readInt() throws IOException {
+            int c = skipBlank();
+            boolean negative = '-' == c;
+            if (negative) {
+                c = next();
+            }
+            if (c < '0' || c > '9') {
+                if (-1 == c) {
+                    throw new EOFException("unexpected end of file in line " + line);
+                }
+                throw error("number expected");
+            }
+
+            long value = 0;
+            do {
+                value = 10 * value + (c - '0');
+                if (value > Integer.MAX_VALUE + 1L) {
+                    throw error("number out of range");
+                }
+                c = next();
+            } while (c >= '0' && c <= '9');
+            if ('\n' == c || -1 == c) {
+                pushback = c;   // leave the line end to skipLine
+            }
+
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw error("number out of range");
+            }
+            return (int) value;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("line " + line + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+/**
+ * Dinic's blocking flow algorithm for the maximum flow problem.
+ * Each phase builds the level graph by breadth first search from the source and then saturates it
+ * with a blocking flow, found by depth first search which remembers the current arc of every vertex.
+ * Runs in O(V^2 E), and in O(E sqrt(V)) on unit capacity networks.
+ */
+public class Dinic {
+
+    /**
+     * Determine the maximum flow which can be send from source to sink
+     * @param G directed graph
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @return maximum flow, can be 0 if there is no path from source to sink at all
+     */
+    public static int maxFlow(final Digraph G, final int source, final int sink) {
+        return maxFlow(new ResidualNetwork(G), source, sink, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * Find a valid routing for a given flow to transport, like {@link FordFulkerson#fordFulkerson(Digraph, int, int, int)}
+     * @param G directed graph
+     * @param source number of source vertex which has demand excess
+     * @param sink number of sink vertex which has demand demand
+     * @param demand flow to transport from source to sink
+     * @return residual graph modified by the algorithm
+     * @throws java.lang.IllegalArgumentException if all paths in G from source to sink do not offer enough capacity to send demand flow
+     */
+    public static Digraph maxFlow(final Digraph G, final int source, final int sink, final int demand) {
+        ResidualNetwork residual = new ResidualNetwork(G);
+        int curFlow = maxFlow(residual, source, sink, demand);
+
+        if (curFlow < demand) {
+            throw new IllegalArgumentException("Not enough capacity to send " + demand + " flow from source to sink");
+        }
+
+        return residual.toDigraph();
+    }
+
+
+    /**
+     * Sends blocking flows through the residual network until the sink is unreachable or limit flow is sent
+     * @param residual residual network, modified by the algorithm
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param limit maximum flow to send, Integer.MAX_VALUE for a maximum flow
+     * @return flow sent from source to sink
+     */
+    public static int maxFlow(final ResidualNetwork residual, final int source, final int sink, final int limit) {
+        int nodes = residual.numberNodes();
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink) {
+            return 0;
+        }
+
+        int[] level = new int[nodes];       // level[v] = BFS distance from source in the residual network, -1 if unreachable or dead
+        int[] current = new int[nodes];     // current[v] = position of the next arc of v to try
+        int[] queue = new int[nodes];
+        int[] path = new int[nodes];        // arcs of the current DFS path from the source
+
+        int curFlow = 0;
+        while (curFlow < limit && buildLevels(residual, source, sink, level, queue)) {
+            for (int v = 0; v < nodes; v++) {
+                current[v] = residual.first(v);
+            }
+            curFlow += blockingFlow(residual, source, sink, limit - curFlow, level, current, path);
+        }
+
+        return curFlow;
+    }
+
+
+    // breadth first search from the source, returns whether the sink is reachable
+    private static boolean buildLevels(ResidualNetwork residual, int source, int sink, int[] level, int[] queue) {
+        Arrays.fill(level, -1);
+        int head = 0;
+        int tail = 0;
+        level[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            if (u == sink) {
+                break;  // Vertices behind the sink's level cannot be on a shortest path
+            }
+
+            for (int i = residual.first(u); i < residual.first(u + 1); i++) {
+                int a = residual.arc(i);
+                int v = residual.head(a);
+                if (residual.residualCapacity(a) > 0 && -1 == level[v]) {
+                    level[v] = level[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return -1 != level[sink];
+    }
+
+
+    // iterative depth first search along the level graph, advancing the current arc pointers
+    private static int blockingFlow(ResidualNetwork residual, int source, int sink, int limit,
+                                    int[] level, int[] current, int[] path) {
+        int sent = 0;
+        int depth = 0;
+        int u = source;
+        while (sent < limit) {
+            if (u == sink) {
+                // Augment along the path by its bottleneck capacity
+                int pathFlow = limit - sent;
+                for (int d = 0; d < depth; d++) {
+                    pathFlow = Math.min(pathFlow, residual.residualCapacity(path[d]));
+                }
+                for (int d = 0; d < depth; d++) {
+                    residual.push(path[d], pathFlow);
+                }
+                sent += pathFlow;
+
+                // Retreat to the tail of the first saturated arc
+                for (int d = 0; d < depth; d++) {
+                    if (0 == residual.residualCapacity(path[d])) {
+                        depth = d;
+                        break;
+                    }
+                }
+                u = (0 == depth) ? source : residual.head(path[depth - 1]);
+                continue;
+            }
+
+            // Advance along the first admissible arc
+            boolean advanced = false;
+            for (; current[u] < residual.first(u + 1); current[u]++) {
+                int a = residual.arc(current[u]);
+                int v = residual.head(a);
+                if (residual.residualCapacity(a) > 0 && level[v] == level[u] + 1) {
+                    path[depth++] = a;
+                    u = v;
+                    advanced = true;
+                    break;
+                }
+            }
+
+            if (!advanced) {
+                // Dead end, remove u from the level graph and retreat
+                level[u] = -1;
+                if (0 == depth) {
+                    break;
+                }
+                u = residual.tail(path[--depth]);
+                current[u]++;
+            }
+        }
+        return sent;
+    }
+}
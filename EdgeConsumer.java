@@ -0,0 +1,8 @@
+/**
+ * Receives the edges of a digraph as primitive values, see {@link Digraph#forEachEdge(EdgeConsumer)}
+ * and {@link CompactDigraph#forEachEdge(EdgeConsumer)}.
+ */
+public interface EdgeConsumer {
+
+    void accept(int from, int to, int capacity, int costs);
+}
@@ -1,72 +1,109 @@
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
-import java.util.Stack;
 
 /**
  * Customized version of http://algs4.cs.princeton.edu/44sp/
  * Created by explicat on 23.01.2015.
+ * <p>
+ * The edges with capacity left are frozen into a {@link CompactDigraph}, whose capacities are the remaining
+ * capacities, and the depth first search runs on its index loops with an explicit stack.
  */
 public class EdgeWeightedDirectedCycle {
-    private Set<Integer> marked;            // marked[v] = has vertex v been marked?
-    private HashMap<Integer, DirectedEdge> edgeTo;        // edgeTo[v] = previous edge on path to v
-    private Set<Integer> onStack;            // onStack[v] = is vertex on the stack?
-    private Stack<DirectedEdge> cycle;    // directed cycle (or null if no such cycle)
+    private List<DirectedEdge> cycle;       // directed cycle in walking order (or null if no such cycle)
 
     /**
      * Determines whether the edge-weighted digraph <tt>G</tt> has a directed cycle and,
      * if so, finds such a cycle.
      *
      * @param G the edge-weighted digraph
+     * @throws IllegalArgumentException if the digraph contains a negative vertex number, or its vertex numbers are
+     *    too sparse, see {@link Digraph#vertexSlots(int...)}
      */
     public EdgeWeightedDirectedCycle(Digraph G) {
-        marked = new HashSet<>(G.numberNodes());
-        onStack = new HashSet<>(G.numberNodes());
-        edgeTo = new HashMap<>(G.numberNodes());
-
-        for (Integer v : G.nodes()) {
-            if (!marked.contains(v)) {
-                dfs(G, v);
+        int nodes = G.vertexSlots();
+
+        // Edges with capacity left, numbered as the compact digraph will number them
+        Set<DirectedEdge> all = G.edges();
+        DirectedEdge[] edges = new DirectedEdge[all.size()];
+        int[] from = new int[edges.length];
+        int[] to = new int[edges.length];
+        int[] remaining = new int[edges.length];
+        int m = 0;
+        for (DirectedEdge e : all) {
+            if (e.capacity() - e.flow() > 0) {  // Ignore edges which have no capacity left
+                edges[m] = e;
+                from[m] = e.from();
+                to[m] = e.to();
+                remaining[m++] = e.capacity() - e.flow();
             }
         }
+        CompactDigraph compact = new CompactDigraph(nodes, Arrays.copyOf(from, m),
+                Arrays.copyOf(to, m), Arrays.copyOf(remaining, m), null);
+        DirectedEdge[] edgeAt = new DirectedEdge[m];   // edgeAt[e] = edge number e of the compact digraph
+        int[] next = new int[nodes];
+        for (int v = 0; v < nodes; v++) {
+            next[v] = compact.first(v);
+        }
+        for (int i = 0; i < m; i++) {
+            edgeAt[next[from[i]]++] = edges[i];
+        }
+
+        dfs(compact, edgeAt);
 
         // check that digraph has a cycle
         assert check(G);
     }
 
-    // check that algorithm computes either the topological order or finds a directed cycle
-    private void dfs(Digraph G, int v) {
-        onStack.add(v);
-        marked.add(v);
-
-        for (DirectedEdge e : G.neighbors(v)) {
-            if (e.capacity() - e.flow() <= 0) {
-                continue;   // Ignore edges which have no capacity left
-            }
-
-            int w = e.to();
-
-            // short circuit if directed cycle found
-            if (cycle != null) return;
-
-                //found new vertex, so recur
-            else if (!marked.contains(w)) {
-                edgeTo.put(w, e);
-                dfs(G, w);
+    // depth first search from every unmarked vertex, stops at the first back edge
+    private void dfs(CompactDigraph G, DirectedEdge[] edgeAt) {
+        int nodes = G.numberNodes();
+        boolean[] marked = new boolean[nodes];  // marked[v] = has vertex v been marked?
+        boolean[] onStack = new boolean[nodes]; // onStack[v] = is vertex on the stack?
+        int[] edgeTo = new int[nodes];          // edgeTo[v] = previous edge on path to v
+        int[] current = new int[nodes];         // current[v] = next edge of v to look at
+        int[] stack = new int[nodes];
+
+        for (int s = 0; s < nodes; s++) {
+            if (marked[s]) {
+                continue;
             }
+            int top = 0;
+            stack[top++] = s;
+            marked[s] = true;
+            onStack[s] = true;
+            current[s] = G.first(s);
+            while (top > 0) {
+                int v = stack[top - 1];
+                if (current[v] == G.first(v + 1)) {
+                    onStack[v] = false;
+                    top--;
+                    continue;
+                }
 
-            // trace back directed cycle
-            else if (onStack.contains(w)) {
-                cycle = new Stack<>();
-                while (e.from() != w) {
-                    cycle.push(e);
-                    e = edgeTo.get(e.from());
+                int e = current[v]++;
+                int w = G.to(e);
+                if (!marked[w]) {
+                    // found new vertex, so descend
+                    edgeTo[w] = e;
+                    marked[w] = true;
+                    onStack[w] = true;
+                    current[w] = G.first(w);
+                    stack[top++] = w;
+                } else if (onStack[w]) {
+                    // trace back directed cycle
+                    cycle = new ArrayList<>();
+                    cycle.add(edgeAt[e]);
+                    for (int x = v; x != w; x = edgeAt[edgeTo[x]].from()) {
+                        cycle.add(edgeAt[edgeTo[x]]);
+                    }
+                    Collections.reverse(cycle);
+                    return;
                 }
-                cycle.push(e);
             }
         }
-
-        onStack.remove(v);
     }
 
     /**
@@ -83,7 +120,7 @@ public class EdgeWeightedDirectedCycle {
      * Returns a directed cycle if the edge-weighted digraph has a directed cycle,
      * and <tt>null</tt> otherwise.
      *
-     * @return a directed cycle (as an iterable) if the edge-weighted digraph
+     * @return a directed cycle (as an iterable) in walking order if the edge-weighted digraph
      * has a directed cycle, and <tt>null</tt> otherwise
      */
     public Iterable<DirectedEdge> cycle() {
@@ -85,34 +85,29 @@ public class FordFulkerson {
 
 
     /**
-     * Determine the maximum flow which can be send from source to sink using the standard Ford Fulkerson algorithm
+     * Determines the arcs which one has to walk to get from source to sink by breath first search.
+     * Solvers which search repeatedly should reuse an {@link AugmentingPathSearch} instead.
+     * @param G residual network. Arcs which have no capacity remaining are ignored.
+     * @param source number of source vertex
+     * @param target number of target vertex
+     * @return arcs which one has to walk from source to sink in this order, or null if there is no path
+     */
+    public static int[] bfs(final ResidualNetwork G, final int source, final int target) {
+        AugmentingPathSearch search = new AugmentingPathSearch(G);
+        return search.search(source, target) ? search.path(target) : null;
+    }
+
+
+    /**
+     * Determine the maximum flow which can be send from source to sink using the standard Ford Fulkerson algorithm.
+     * Networks of bipartite matching problems are detected and solved by {@link HopcroftKarp} instead.
      * @param G acyclic directed graph
      * @param source number of source vertex
      * @param sink number of sink vertex
      * @return maximum flow, can be 0 if there is no path from source to sink at all
      */
     public static int fordFulkerson(final Digraph G, final int source, final int sink) {
-        Digraph residual = G.createResidual();
-        int maxFlow = 0;
-
-        List<DirectedEdge> path;
-        while (null != (path = bfs(residual, source, sink))) {
-            // Find maximum remaining capacity along edges. We cannot move more flow than the minimum available remaining capacity
-            int pathFlow = Integer.MAX_VALUE;
-            for (DirectedEdge e : path) {
-                pathFlow = Math.min(pathFlow, (e.capacity() - e.flow()));
-            }
-
-            // Augment flow and update graph
-            for (DirectedEdge e : path) {
-                e.flow(e.flow() + pathFlow);
-                e.inverseEdge().capacity(e.inverseEdge().capacity() + pathFlow);
-            }
-
-            maxFlow += pathFlow;
-        }
-
-        return maxFlow;
+        return fordFulkerson(new ResidualNetwork(G), source, sink, Integer.MAX_VALUE);
     }
 
 
@@ -126,32 +121,170 @@ public class FordFulkerson {
      * @throws java.lang.IllegalArgumentException if all paths in G from source to sink do not offer enough capacity to send demand flow
      */
     public static Digraph fordFulkerson(final Digraph G, final int source, final int sink, int demand) {
-        Digraph residual = G.createResidual();
-        int curFlow = 0;
-
-        List<DirectedEdge> path;
-        while (null != (path = bfs(residual, source, sink)) && (curFlow < demand)) {
-            // Find maximum remaining capacity along edges. We cannot move more flow than the minimum available remaining capacity
-            int pathFlow = Integer.MAX_VALUE;
-            for (DirectedEdge e : path) {
-                pathFlow = Math.min(pathFlow, (e.capacity() - e.flow()));
-            }
-            pathFlow = Math.min(demand - curFlow, pathFlow);
+        return fordFulkerson(G, source, sink, demand, SolverListener.NONE);
+    }
+
+    /**
+     * Find a valid routing for a given flow to transport, reporting searches and augmentations to the listener
+     * @param G directed acyclic graph
+     * @param source number of source vertex which has demand excess
+     * @param sink number of sink vertex which has demand demand
+     * @param demand flow to transport from source to sink
+     * @param listener receives the counters of the solve
+     * @return residual graph modified by the algorithm
+     * @throws java.lang.IllegalArgumentException if all paths in G from source to sink do not offer enough capacity to send demand flow
+     */
+    public static Digraph fordFulkerson(final Digraph G, final int source, final int sink, int demand, SolverListener listener) {
+        ResidualNetwork residual = new ResidualNetwork(G);
+        int curFlow = fordFulkerson(residual, source, sink, demand, listener);
+
+        if (curFlow < demand) {
+            throw new IllegalArgumentException("Not enough capacity to send " + demand + " flow from source to sink");
+        }
+
+        return residual.toDigraph();
+    }
+
+
+    /**
+     * Augments flow along shortest paths in the residual network until there is no path left or limit flow is sent
+     * @param residual residual network, modified by the algorithm
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param limit maximum flow to send, Integer.MAX_VALUE for a maximum flow
+     * @return flow sent from source to sink
+     */
+    public static int fordFulkerson(final ResidualNetwork residual, final int source, final int sink, final int limit) {
+        return fordFulkerson(residual, source, sink, limit, SolverListener.NONE);
+    }
+
+    /**
+     * Augments flow along shortest paths in the residual network, reporting searches and augmentations to the listener
+     * @param residual residual network, modified by the algorithm
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param limit maximum flow to send, Integer.MAX_VALUE for a maximum flow
+     * @param listener receives the counters of the solve
+     * @return flow sent from source to sink
+     */
+    public static int fordFulkerson(final ResidualNetwork residual, final int source, final int sink, final int limit,
+                                    final SolverListener listener) {
+        return augment(residual, new AugmentingPathSearch(residual), source, sink, limit, listener);
+    }
+
+    // augments along paths found by search until limit flow is sent or the last search does not reach the sink.
+    // Bipartite matching problems are solved by Hopcroft-Karp first, the search then only proves that nothing is left.
+    private static int augment(final ResidualNetwork residual, final AugmentingPathSearch search, final int source,
+                               final int sink, final int limit, final SolverListener listener) {
+        long start = System.nanoTime();
+        int curFlow = HopcroftKarp.maxFlow(residual, source, sink, limit);
+        if (curFlow >= 0) {
+            listener.phaseFinished("hopcroft-karp", System.nanoTime() - start);
+            start = System.nanoTime();
+        } else {
+            curFlow = 0;
+        }
 
-            // Augment flow and update graph
-            for (DirectedEdge e : path) {
-                e.flow(e.flow() + pathFlow);
-                e.inverseEdge().capacity(e.inverseEdge().capacity() + pathFlow);
+        while (curFlow < limit) {
+            boolean found = search.search(source, sink);
+            listener.searched(search.scanned());
+            if (!found) {
+                break;
             }
 
+            // We cannot move more flow than the minimum available remaining capacity along the path
+            int pathFlow = search.bottleneck(sink, limit - curFlow);
+
+            // Augment flow and update the paired reverse arcs
+            int arcs = search.augment(sink, pathFlow);
+            listener.augmented(pathFlow, arcs);
             curFlow += pathFlow;
         }
 
-        if (curFlow < demand) {
-            throw new IllegalArgumentException("Not enough capacity to send " + demand + " flow from source to sink");
+        listener.phaseFinished("augmenting paths", System.nanoTime() - start);
+        return curFlow;
+    }
+
+
+    /**
+     * Determine a minimum cut between source and sink
+     * @param G directed graph
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @return minimum cut, whose arcs are numbered within a residual network of G
+     * @throws IllegalArgumentException if source or sink are not vertices of G or coincide
+     */
+    public static MinCut minCut(final Digraph G, final int source, final int sink) {
+        return minCut(new ResidualNetwork(G), source, sink, SolverListener.NONE);
+    }
+
+    /**
+     * Sends a maximum flow and reads the minimum cut off the final breadth first search, which proves that no
+     * augmenting path is left: the vertices it scanned form the source side.
+     * @param residual residual network, modified by the algorithm. It holds a maximum flow afterwards.
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @return minimum cut
+     * @throws IllegalArgumentException if source or sink are not vertices of the network or coincide
+     */
+    public static MinCut minCut(final ResidualNetwork residual, final int source, final int sink) {
+        return minCut(residual, source, sink, SolverListener.NONE);
+    }
+
+    /**
+     * Sends a maximum flow and reads the minimum cut off the final breadth first search, reporting searches and
+     * augmentations to the listener
+     * @param residual residual network, modified by the algorithm. It holds a maximum flow afterwards.
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param listener receives the counters of the solve
+     * @return minimum cut
+     * @throws IllegalArgumentException if source or sink are not vertices of the network or coincide
+     */
+    public static MinCut minCut(final ResidualNetwork residual, final int source, final int sink,
+                                final SolverListener listener) {
+        int nodes = residual.numberNodes();
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink) {
+            throw new IllegalArgumentException("source and sink must be distinct vertices between 0 and " + (nodes - 1));
+        }
+
+        AugmentingPathSearch search = new AugmentingPathSearch(residual);
+        int value = augment(residual, search, source, sink, Integer.MAX_VALUE, listener);
+        if (Integer.MAX_VALUE == value && search.search(source, sink)) {
+            throw new IllegalArgumentException("Maximum flow from source to sink exceeds " + Integer.MAX_VALUE);
         }
 
-        return residual;
+        // The final search scanned exactly the source side, so only its arcs need to be looked at
+        BitSet sourceSide = new BitSet(nodes);
+        int count = 0;
+        for (int k = 0; k < search.scanned(); k++) {
+            int u = search.scannedVertex(k);
+            sourceSide.set(u);
+            for (int i = residual.first(u); i < residual.first(u + 1); i++) {
+                int a = residual.arc(i);
+                if (isCutArc(residual, search, a)) {
+                    count++;
+                }
+            }
+        }
+        int[] cutArcs = new int[count];
+        count = 0;
+        for (int k = 0; k < search.scanned(); k++) {
+            int u = search.scannedVertex(k);
+            for (int i = residual.first(u); i < residual.first(u + 1); i++) {
+                int a = residual.arc(i);
+                if (isCutArc(residual, search, a)) {
+                    cutArcs[count++] = a;
+                }
+            }
+        }
+
+        return new MinCut(residual, value, sourceSide, cutArcs);
+    }
+
+    // forward arc with capacity whose head the final search did not reach, saturated by construction
+    private static boolean isCutArc(ResidualNetwork residual, AugmentingPathSearch search, int a) {
+        return !residual.isResidualArc(a) && residual.capacity(a) > 0 && !search.reached(residual.head(a));
     }
 
 
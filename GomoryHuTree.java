@@ -0,0 +1,180 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Gomory-Hu tree of an undirected network, built with Gusfield's algorithm from V - 1 maximum flows.
+ * The minimum cut between any two vertices equals the smallest weight on the tree path between them.
+ * Every edge of the given digraph is taken as an undirected edge, i.e. it carries flow in both directions.
+ * <p>
+ * Vertex s is cut from its current tree parent t, and every later vertex on the side of s which hangs off t
+ * moves below s. A cut stays valid as long as the parent of s does not change, so the flows for a batch of
+ * consecutive vertices run in parallel and are accepted in order until a parent has changed in between.
+ * Path minima are answered in O(log V) by binary lifting.
+ */
+public class GomoryHuTree {
+
+    private final int nodes;
+    private final int[] parent;         // parent[v] = neighbour of v towards vertex 0, -1 for vertex 0 itself
+    private final int[] weight;         // weight[v] = minimum cut between v and parent[v]
+    private final int[] depth;          // depth[v] = number of tree edges between v and vertex 0
+    private final int[][] ancestor;     // ancestor[k][v] = ancestor 2^k levels above v, or vertex 0
+    private final int[][] minimum;      // minimum[k][v] = smallest weight on the 2^k tree edges above v
+
+    public GomoryHuTree(Digraph G) {
+        this(G.compact());
+    }
+
+    /**
+     * Builds the tree
+     * @param G digraph whose edges are taken as undirected edges
+     */
+    public GomoryHuTree(CompactDigraph G) {
+        nodes = G.numberNodes();
+        DigraphBuilder builder = new DigraphBuilder(nodes, 2 * G.numberEdges());
+        G.forEachEdge((u, v, c, w) -> {
+            builder.addEdge(u, v, c);
+            builder.addEdge(v, u, c);
+        });
+        final ResidualNetworkPool networks = new ResidualNetworkPool(new ResidualNetwork(builder.build()));
+
+        parent = new int[nodes];
+        weight = new int[nodes];
+        if (nodes > 0) {
+            parent[0] = -1;
+        }
+
+        int batch = Math.max(1, Runtime.getRuntime().availableProcessors());
+        int next = 1;   // first vertex whose cut is not accepted yet
+        while (next < nodes) {
+            final int from = next;
+            final int[] sinks = Arrays.copyOfRange(parent, from, Math.min(nodes, from + batch));
+            Cut[] cuts = IntStream.range(0, sinks.length).parallel()
+                    .mapToObj(i -> cut(networks, from + i, sinks[i]))
+                    .toArray(Cut[]::new);
+
+            for (int i = 0; i < cuts.length && sinks[i] == parent[from + i]; i++) {
+                accept(from + i, cuts[i]);
+                next++;
+            }
+        }
+
+        // Binary lifting tables, parents always have smaller numbers than their children
+        depth = new int[nodes];
+        int levels = 1;
+        for (int v = 1; v < nodes; v++) {
+            depth[v] = depth[parent[v]] + 1;
+            while ((1 << levels) <= depth[v]) {
+                levels++;
+            }
+        }
+        ancestor = new int[levels][nodes];
+        minimum = new int[levels][nodes];
+        for (int v = 1; v < nodes; v++) {
+            ancestor[0][v] = parent[v];
+            minimum[0][v] = weight[v];
+        }
+        for (int k = 1; k < levels; k++) {
+            for (int v = 0; v < nodes; v++) {
+                int middle = ancestor[k - 1][v];
+                ancestor[k][v] = ancestor[k - 1][middle];
+                minimum[k][v] = Math.min(minimum[k - 1][v], minimum[k - 1][middle]);
+            }
+        }
+    }
+
+    // minimum cut between s and t, on a network of the pool. The network returns to the pool only once the
+    // solver is done with it, so the cut is copied out before.
+    private static Cut cut(ResidualNetworkPool networks, int s, int t) {
+        ResidualNetwork residual = networks.acquire();
+        try {
+            PushRelabel solver = new PushRelabel(residual, s, t);
+            int nodes = residual.numberNodes();
+            BitSet sourceSide = new BitSet(nodes);
+            for (int v = s + 1; v < nodes; v++) {
+                if (solver.inCut(v)) {
+                    sourceSide.set(v);
+                }
+            }
+            return new Cut(solver.value(), sourceSide);
+        } finally {
+            networks.release(residual);
+        }
+    }
+
+    // value and source side of a cut, vertices below s are left out as accept never looks at them
+    private static class Cut {
+        private final int value;
+        private final BitSet sourceSide;
+
+        Cut(int value, BitSet sourceSide) {
+            this.value = value;
+            this.sourceSide = sourceSide;
+        }
+    }
+
+    // takes the cut between s and its parent t into the tree
+    private void accept(int s, Cut cut) {
+        int t = parent[s];
+        weight[s] = cut.value;
+        for (int v = s + 1; v < nodes; v++) {
+            if (parent[v] == t && cut.sourceSide.get(v)) {
+                parent[v] = s;
+            }
+        }
+    }
+
+
+    /**
+     * Determine the maximum flow, which equals the minimum cut, between two vertices
+     * @param u number of one vertex
+     * @param v number of the other vertex
+     * @return minimum cut between u and v, Integer.MAX_VALUE if u equals v
+     * @throws IllegalArgumentException if u or v is not a vertex of the network
+     */
+    public int minCut(int u, int v) {
+        if (u < 0 || u >= nodes || v < 0 || v >= nodes) {
+            throw new IllegalArgumentException("vertices must lie between 0 and " + (nodes - 1));
+        }
+
+        int cut = Integer.MAX_VALUE;
+        if (depth[u] < depth[v]) {
+            int swap = u;
+            u = v;
+            v = swap;
+        }
+        for (int k = ancestor.length - 1; k >= 0; k--) {
+            if (depth[u] - (1 << k) >= depth[v]) {
+                cut = Math.min(cut, minimum[k][u]);
+                u = ancestor[k][u];
+            }
+        }
+        if (u == v) {
+            return cut;
+        }
+        for (int k = ancestor.length - 1; k >= 0; k--) {
+            if (ancestor[k][u] != ancestor[k][v]) {
+                cut = Math.min(cut, Math.min(minimum[k][u], minimum[k][v]));
+                u = ancestor[k][u];
+                v = ancestor[k][v];
+            }
+        }
+        return Math.min(cut, Math.min(weight[u], weight[v]));
+    }
+
+    /**
+     * @param v vertex number
+     * @return neighbour of v in the tree towards vertex 0, -1 for vertex 0
+     */
+    public int parent(int v) {
+        return parent[v];
+    }
+
+    /**
+     * @param v vertex number other than 0
+     * @return weight of the tree edge between v and its parent, which is the minimum cut between the two
+     */
+    public int weight(int v) {
+        return weight[v];
+    }
+}
@@ -0,0 +1,305 @@
+import java.util.Arrays;
+
+/**
+ * Hopcroft-Karp algorithm for maximum bipartite matching in O(E sqrt(V)).
+ * Each phase layers the left vertices by breadth first search from the free ones, alternating between unmatched
+ * and matched edges, and then augments along a maximal set of vertex-disjoint shortest augmenting paths found by
+ * depth first search. The search is iterative and remembers the current edge of every vertex, so a phase takes O(E).
+ * <p>
+ * Max-flow networks which are matching problems in disguise, i.e. a source with unit capacity arcs to the left
+ * vertices, arcs from left to right vertices and unit capacity arcs from the right vertices to a sink, are recognized
+ * by {@link #maxFlow(ResidualNetwork, int, int, int)}, which {@link FordFulkerson} tries first.
+ */
+public class HopcroftKarp {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private static final byte LEFT = 1;
+    private static final byte RIGHT = 2;
+
+    private final int[] first;          // first[l] .. first[l + 1] - 1 = positions in adjacent of the edges of l
+    private final int[] adjacent;       // adjacent[i] = right vertex of the edge at position i
+    private final int[] mate;           // mate[l] = position of the matched edge of left vertex l, -1 if free
+    private final int[] mateOfRight;    // mateOfRight[r] = left vertex matched to r, -1 if free
+    private final int[] distance;       // distance[l] = layer of l in the current phase
+    private final int[] current;        // current[l] = position of the next edge of l to try
+    private final int[] stack;          // left vertices of the current search path, also the queue of the layering
+    private int size;
+
+    /**
+     * Computes a maximum matching of the bipartite graph given in compressed sparse row form
+     * @param left number of left vertices
+     * @param right number of right vertices
+     * @param first first[l] .. first[l + 1] - 1 = positions in adjacent of the edges of left vertex l, length left + 1
+     * @param adjacent right vertex of each edge, between 0 and right - 1
+     * @throws IllegalArgumentException if the arrays do not describe a bipartite graph of that size
+     */
+    public HopcroftKarp(int left, int right, int[] first, int[] adjacent) {
+        if (left < 0 || right < 0 || first.length != left + 1 || first[0] != 0 || first[left] != adjacent.length) {
+            throw new IllegalArgumentException("first must hold left + 1 positions from 0 to the number of edges");
+        }
+        for (int r : adjacent) {
+            if (r < 0 || r >= right) {
+                throw new IllegalArgumentException("right vertex " + r + " not between 0 and " + (right - 1));
+            }
+        }
+
+        this.first = first;
+        this.adjacent = adjacent;
+        mate = new int[left];
+        mateOfRight = new int[right];
+        distance = new int[left];
+        current = new int[left];
+        stack = new int[left];
+        Arrays.fill(mate, -1);
+        Arrays.fill(mateOfRight, -1);
+
+        // Greedy matching first, it leaves few augmenting paths to the phases
+        for (int l = 0; l < left; l++) {
+            for (int i = first[l]; i < first[l + 1]; i++) {
+                if (-1 == mateOfRight[adjacent[i]]) {
+                    match(l, i);
+                    size++;
+                    break;
+                }
+            }
+        }
+
+        while (layer()) {
+            for (int l = 0; l < left; l++) {
+                current[l] = first[l];
+            }
+            for (int l = 0; l < left; l++) {
+                if (-1 == mate[l] && augment(l)) {
+                    size++;
+                }
+            }
+        }
+    }
+
+
+    /** Getters **/
+
+    /**
+     * @return number of matched edges
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param l left vertex
+     * @return right vertex matched to l, -1 if l is free
+     */
+    public int mate(int l) {
+        return -1 == mate[l] ? -1 : adjacent[mate[l]];
+    }
+
+    /**
+     * @param l left vertex
+     * @return position in adjacent of the edge matching l, -1 if l is free
+     */
+    public int matchedEdge(int l) {
+        return mate[l];
+    }
+
+    /**
+     * @param r right vertex
+     * @return left vertex matched to r, -1 if r is free
+     */
+    public int mateOfRight(int r) {
+        return mateOfRight[r];
+    }
+
+
+    /**
+     * Solves a max-flow problem by matching if the network has the shape of a bipartite matching problem: no flow yet,
+     * arcs of capacity 1 from the source to distinct left vertices and from distinct right vertices to the sink, and
+     * every other arc with capacity leading from a left to a right vertex. The matched edges receive one unit of flow.
+     * @param residual residual network, modified only if it has the shape of a matching problem
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param limit maximum flow to send
+     * @return flow sent from source to sink, or -1 if the network does not have the shape of a matching problem
+     */
+    static int maxFlow(final ResidualNetwork residual, final int source, final int sink, final int limit) {
+        int nodes = residual.numberNodes();
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink || limit <= 0) {
+            return -1;
+        }
+        if (!unitArcs(residual, source) || !unitArcs(residual, sink)) {
+            return -1;
+        }
+
+        // Classify the vertices by the arcs of source and sink
+        byte[] side = new byte[nodes];
+        int[] index = new int[nodes];       // index[v] = number of v among the left or right vertices
+        int[] sourceArc = new int[nodes];   // sourceArc[l] = arc from the source to left vertex l
+        int[] sinkArc = new int[nodes];     // sinkArc[r] = arc from right vertex r to the sink
+        int left = 0;
+        int right = 0;
+        int edges = 0;
+        for (int a = 0; a < residual.numberArcs(); a += 2) {
+            int capacity = residual.capacity(a);
+            if (0 == capacity) {
+                continue;
+            }
+            if (residual.flow(a) != 0) {
+                return -1;
+            }
+
+            int u = residual.tail(a);
+            int v = residual.head(a);
+            if (u == source) {
+                if (1 != capacity || v == sink || 0 != side[v]) {
+                    return -1;
+                }
+                side[v] = LEFT;
+                sourceArc[left] = a;
+                index[v] = left++;
+            } else if (v == sink) {
+                if (1 != capacity || 0 != side[u]) {
+                    return -1;
+                }
+                side[u] = RIGHT;
+                sinkArc[right] = a;
+                index[u] = right++;
+            } else {
+                edges++;
+            }
+        }
+        if (0 != side[source] || 0 != side[sink]) {
+            return -1;
+        }
+
+        // Collect the edges from left to right vertices in compressed sparse row form
+        int[] first = new int[left + 1];
+        int[] adjacent = new int[edges];
+        int[] edgeArc = new int[edges];     // edgeArc[i] = arc of the edge at position i
+        int position = 0;
+        for (int u = 0; u < nodes; u++) {
+            for (int i = residual.first(u); i < residual.first(u + 1); i++) {
+                int a = residual.arc(i);
+                int v = residual.head(a);
+                if (residual.isResidualArc(a) || 0 == residual.capacity(a) || u == source || v == sink) {
+                    continue;
+                }
+                if (LEFT != side[u] || RIGHT != side[v]) {
+                    return -1;
+                }
+                first[index[u] + 1]++;
+            }
+        }
+        for (int l = 0; l < left; l++) {
+            first[l + 1] += first[l];
+        }
+        int[] next = Arrays.copyOf(first, left);
+        for (int u = 0; u < nodes; u++) {
+            if (LEFT != side[u]) {
+                continue;
+            }
+            for (int i = residual.first(u); i < residual.first(u + 1); i++) {
+                int a = residual.arc(i);
+                if (residual.isResidualArc(a) || 0 == residual.capacity(a)) {
+                    continue;
+                }
+                position = next[index[u]]++;
+                adjacent[position] = index[residual.head(a)];
+                edgeArc[position] = a;
+            }
+        }
+
+        // Route one unit of flow through every matched edge, as far as the limit allows
+        HopcroftKarp matching = new HopcroftKarp(left, right, first, adjacent);
+        int flow = 0;
+        for (int l = 0; l < left && flow < limit; l++) {
+            int edge = matching.matchedEdge(l);
+            if (-1 != edge) {
+                residual.push(sourceArc[l], 1);
+                residual.push(edgeArc[edge], 1);
+                residual.push(sinkArc[adjacent[edge]], 1);
+                flow++;
+            }
+        }
+        return flow;
+    }
+
+
+    // whether the arcs of v with capacity, leaving it or entering it, all have capacity 1 and no flow.
+    // Rejects most other networks in O(degree) before anything is allocated.
+    private static boolean unitArcs(ResidualNetwork residual, int v) {
+        for (int i = residual.first(v); i < residual.first(v + 1); i++) {
+            int a = residual.arc(i);
+            int forward = residual.isResidualArc(a) ? a ^ 1 : a;
+            int capacity = residual.capacity(forward);
+            if (capacity > 1 || (1 == capacity && 0 != residual.flow(forward))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // layers the left vertices by breadth first search from the free ones, returns whether a free right vertex is reachable
+    private boolean layer() {
+        int head = 0;
+        int tail = 0;
+        for (int l = 0; l < mate.length; l++) {
+            if (-1 == mate[l]) {
+                distance[l] = 0;
+                stack[tail++] = l;
+            } else {
+                distance[l] = INFINITY;
+            }
+        }
+
+        boolean found = false;
+        while (head < tail) {
+            int l = stack[head++];
+            for (int i = first[l]; i < first[l + 1]; i++) {
+                int w = mateOfRight[adjacent[i]];
+                if (-1 == w) {
+                    found = true;
+                } else if (INFINITY == distance[w]) {
+                    distance[w] = distance[l] + 1;
+                    stack[tail++] = w;
+                }
+            }
+        }
+        return found;
+    }
+
+    // depth first search along the layers from free left vertex root, flips the path if it ends at a free right vertex
+    private boolean augment(int root) {
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int l = stack[top - 1];
+            if (current[l] == first[l + 1]) {
+                distance[l] = INFINITY;     // Dead end, no need to try it again in this phase
+                top--;
+                continue;
+            }
+
+            int w = mateOfRight[adjacent[current[l]]];
+            if (-1 == w) {
+                // Every vertex on the stack takes the edge its current position points to
+                while (top > 0) {
+                    int u = stack[--top];
+                    match(u, current[u]);
+                }
+                return true;
+            }
+            if (distance[w] == distance[l] + 1) {
+                stack[top++] = w;
+            } else {
+                current[l]++;
+            }
+        }
+        return false;
+    }
+
+    private void match(int l, int position) {
+        mate[l] = position;
+        mateOfRight[adjacent[position]] = l;
+    }
+}
@@ -0,0 +1,172 @@
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Maximum flow which is kept up to date while edge capacities change, instead of being solved from scratch.
+ * An increase just adds residual capacity and resumes augmentation. A decrease below the flow on the edge cuts
+ * the flow down, which leaves an excess at its tail and a deficit at its head: the excess is first rerouted to
+ * the head around the edge, whatever cannot be rerouted goes back to the source and is refilled from the sink.
+ * Afterwards augmentation resumes, unless only decreases were repaired without losing flow: the flow is still
+ * maximum then, as decreases cannot raise the maximum. All steps run {@link Dinic} on the residual network,
+ * limited to the amount to repair, so the work is proportional to the part of the flow affected by the update.
+ */
+public class IncrementalMaxFlow {
+
+    private final ResidualNetwork residual;
+    private final Map<DirectedEdge, Integer> edgeNumbers;   // number of every edge of the digraph solved, if any
+    private final int source;
+    private final int sink;
+    private int value;
+    private boolean augmentable;        // whether an update may have opened an augmenting path
+
+    /**
+     * Solves the maximum flow on the network
+     * @param residual residual network, modified by this object
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @throws IllegalArgumentException if source or sink are not vertices of the network or coincide
+     */
+    public IncrementalMaxFlow(ResidualNetwork residual, int source, int sink) {
+        this(residual, null, source, sink);
+    }
+
+    /**
+     * Solves the maximum flow on the digraph, whose edges can then be updated by {@link #setCapacity(DirectedEdge, int)}
+     * @param G directed graph, vertex numbers must not be negative. It is copied, so it is left untouched.
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @throws IllegalArgumentException if source or sink are not vertices of the network or coincide
+     */
+    public IncrementalMaxFlow(Digraph G, int source, int sink) {
+        this(G, new IdentityHashMap<>(), source, sink);
+    }
+
+    private IncrementalMaxFlow(Digraph G, Map<DirectedEdge, Integer> edgeNumbers, int source, int sink) {
+        this(new ResidualNetwork(G.compact(edgeNumbers)), edgeNumbers, source, sink);
+    }
+
+    private IncrementalMaxFlow(ResidualNetwork residual, Map<DirectedEdge, Integer> edgeNumbers, int source, int sink) {
+        int nodes = residual.numberNodes();
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink) {
+            throw new IllegalArgumentException("source and sink must be distinct vertices between 0 and " + (nodes - 1));
+        }
+
+        this.residual = residual;
+        this.edgeNumbers = edgeNumbers;
+        this.source = source;
+        this.sink = sink;
+        augmentable = true;
+        augment();
+    }
+
+
+    /** Getters **/
+    public int value() {
+        return value;
+    }
+
+    public ResidualNetwork residual() {
+        return residual;
+    }
+
+
+    /**
+     * Changes the capacity of an edge and repairs the maximum flow
+     * @param edge number of the edge in the {@link CompactDigraph}
+     * @param capacity new capacity
+     * @return value of the maximum flow after the change
+     */
+    public int setCapacity(int edge, int capacity) {
+        repair(edge, capacity);
+        augment();
+        return value;
+    }
+
+    /**
+     * Changes the capacity of an edge and repairs the maximum flow
+     * @param edge edge of the digraph given to the constructor
+     * @param capacity new capacity
+     * @return value of the maximum flow after the change
+     * @throws IllegalArgumentException if edge is not an edge of that digraph
+     */
+    public int setCapacity(DirectedEdge edge, int capacity) {
+        return setCapacity(edgeNumber(edge), capacity);
+    }
+
+    /**
+     * @param edge edge of the digraph given to the constructor
+     * @return number of the edge in the {@link CompactDigraph}
+     * @throws IllegalArgumentException if edge is not an edge of that digraph
+     */
+    public int edgeNumber(DirectedEdge edge) {
+        Integer number = (null == edgeNumbers) ? null : edgeNumbers.get(edge);
+        if (null == number) {
+            throw new IllegalArgumentException("edge " + edge.from() + " -> " + edge.to() + " is not an edge of the digraph solved");
+        }
+        return number;
+    }
+
+    /**
+     * Changes the capacities of several edges and repairs the maximum flow once for all of them
+     * @param edges numbers of the edges in the {@link CompactDigraph}
+     * @param capacities new capacities, capacities[i] for edges[i]
+     * @return value of the maximum flow after the changes
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public int setCapacities(int[] edges, int[] capacities) {
+        if (edges.length != capacities.length) {
+            throw new IllegalArgumentException("edges and capacities must have same size");
+        }
+        for (int i = 0; i < edges.length; i++) {
+            repair(edges[i], capacities[i]);
+        }
+        augment();
+        return value;
+    }
+
+
+    // changes the capacity and restores flow conservation, leaving a valid but possibly not maximum flow
+    private void repair(int edge, int capacity) {
+        int a = 2 * edge;
+        augmentable |= capacity > residual.capacity(a);
+        int excess = residual.setCapacity(a, capacity);
+        if (0 == excess) {
+            return;
+        }
+
+        int tail = residual.tail(a);
+        int head = residual.head(a);
+        boolean tailBalanced = tail == source || tail == sink;  // the terminals may keep any excess or deficit
+        boolean headBalanced = head == source || head == sink;
+        if (tailBalanced && headBalanced) {
+            augmentable = true;
+            return;
+        }
+
+        // Route the flow around the edge, then shrink the flow by the rest
+        excess -= Dinic.maxFlow(residual, tail, head, excess);
+        augmentable |= excess > 0;
+        if (excess > 0 && !tailBalanced && Dinic.maxFlow(residual, tail, source, excess) < excess) {
+            throw new IllegalStateException("excess at vertex " + tail + " cannot return to the source");
+        }
+        if (excess > 0 && !headBalanced && Dinic.maxFlow(residual, sink, head, excess) < excess) {
+            throw new IllegalStateException("deficit at vertex " + head + " cannot be refilled from the sink");
+        }
+    }
+
+    // resumes augmentation and updates the flow value
+    private void augment() {
+        if (!augmentable) {
+            return;
+        }
+        augmentable = false;
+        Dinic.maxFlow(residual, source, sink, Integer.MAX_VALUE);
+
+        // Net flow leaving the source, reverse arcs leaving it count the flow entering it negatively
+        long flow = 0;
+        for (int i = residual.first(source); i < residual.first(source + 1); i++) {
+            flow += residual.flow(residual.arc(i));
+        }
+        value = (int) flow;
+    }
+}
@@ -0,0 +1,91 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Fixed size int array, which is either a plain heap array or split into pages of off-heap direct buffers.
+ * Off-heap pages are not scanned or moved by the garbage collector, their total size is bounded by
+ * -XX:MaxDirectMemorySize. Paging lifts the limit of 2^29 ints of a single direct buffer, so an array
+ * can have any length up to Integer.MAX_VALUE. All elements start as 0.
+ */
+final class IntArray {
+
+    private static final int PAGE_BITS = 28;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;    // ints per page, 1 GB off-heap
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int length;
+    private final int[] array;          // elements on the heap, or null if off-heap
+    private final IntBuffer[] pages;    // elements off-heap, or null if on the heap
+
+    /**
+     * @param length number of elements
+     * @param offHeap whether the elements are stored in direct buffers outside of the heap
+     */
+    IntArray(int length, boolean offHeap) {
+        this.length = length;
+        if (!offHeap) {
+            array = new int[length];
+            pages = null;
+            return;
+        }
+
+        array = null;
+        int numberPages = Math.max(1, (int) (((long) length + PAGE_SIZE - 1) >>> PAGE_BITS));
+        pages = new IntBuffer[numberPages];
+        for (int p = 0; p < numberPages; p++) {
+            int size = Math.min(PAGE_SIZE, length - p * PAGE_SIZE);
+            pages[p] = ByteBuffer.allocateDirect(Integer.BYTES * size).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+    }
+
+    int length() {
+        return length;
+    }
+
+    boolean isOffHeap() {
+        return null == array;
+    }
+
+    int get(int i) {
+        if (null != array) {
+            return array[i];
+        }
+        return pages[i >>> PAGE_BITS].get(i & PAGE_MASK);
+    }
+
+    void set(int i, int value) {
+        if (null != array) {
+            array[i] = value;
+            return;
+        }
+        pages[i >>> PAGE_BITS].put(i & PAGE_MASK, value);
+    }
+
+    void add(int i, int delta) {
+        if (null != array) {
+            array[i] += delta;
+            return;
+        }
+        IntBuffer page = pages[i >>> PAGE_BITS];
+        page.put(i & PAGE_MASK, page.get(i & PAGE_MASK) + delta);
+    }
+
+    /**
+     * Overwrites all elements with those of source, with one bulk copy per page
+     * @param source array of the same length and storage
+     */
+    void copyFrom(IntArray source) {
+        if (null != array) {
+            System.arraycopy(source.array, 0, array, 0, length);
+            return;
+        }
+        for (int p = 0; p < pages.length; p++) {
+            IntBuffer from = source.pages[p].duplicate();   // own position, so source may be read concurrently
+            IntBuffer to = pages[p].duplicate();
+            from.clear();
+            to.clear();
+            to.put(from);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Answers batches of maximum flow queries with different end points over one graph.
+ * The topology is frozen once into a {@link ResidualNetwork}; every query runs {@link Dinic} on a network
+ * of its own from a {@link ResidualNetworkPool}, so the queries of a batch run in parallel on a fork-join pool.
+ */
+public class MaxFlowBatch {
+
+    /**
+     * Query for the flow from source to sink, optionally bounded by a demand
+     */
+    public static class Query {
+        private final int source;
+        private final int sink;
+        private final int demand;
+
+        public Query(int source, int sink) {
+            this(source, sink, Integer.MAX_VALUE);
+        }
+
+        /**
+         * @param source number of source vertex
+         * @param sink number of sink vertex
+         * @param demand flow to send at most, Integer.MAX_VALUE for a maximum flow
+         */
+        public Query(int source, int sink, int demand) {
+            this.source = source;
+            this.sink = sink;
+            this.demand = demand;
+        }
+
+        public int source() {
+            return source;
+        }
+
+        public int sink() {
+            return sink;
+        }
+
+        public int demand() {
+            return demand;
+        }
+    }
+
+
+    private final ResidualNetworkPool networks;
+
+    public MaxFlowBatch(Digraph G) {
+        this(new ResidualNetwork(G));
+    }
+
+    /**
+     * @param topology network whose topology is shared by all queries, its own flow is left untouched
+     */
+    public MaxFlowBatch(ResidualNetwork topology) {
+        this.networks = new ResidualNetworkPool(topology);
+    }
+
+
+    /**
+     * Solves the queries on the common fork-join pool
+     * @param queries queries to answer
+     * @return flow of each query, in the order of the queries
+     */
+    public int[] solve(List<Query> queries) {
+        return solve(queries, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Solves the queries on the given fork-join pool
+     * @param queries queries to answer
+     * @param pool pool whose threads run the queries
+     * @return flow of each query, in the order of the queries. The flow is at most the demand of the query,
+     *    and less if the network cannot carry the demand.
+     */
+    public int[] solve(final List<Query> queries, ForkJoinPool pool) {
+        return pool.submit(() -> IntStream.range(0, queries.size()).parallel().map(i -> solve(queries.get(i))).toArray())
+                .join();
+    }
+
+    private int solve(Query query) {
+        ResidualNetwork residual = networks.acquire();
+        try {
+            return Dinic.maxFlow(residual, query.source(), query.sink(), query.demand());
+        } finally {
+            networks.release(residual);
+        }
+    }
+}
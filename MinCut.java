@@ -0,0 +1,62 @@
+import java.util.BitSet;
+
+/**
+ * Minimum s-t cut of a {@link ResidualNetwork} carrying a maximum flow, as computed by
+ * {@link FordFulkerson#minCut(ResidualNetwork, int, int)}. The source side holds the vertices reachable from the
+ * source in the residual network, the cut arcs are the forward arcs leaving it, all of which are saturated.
+ */
+public class MinCut {
+
+    private final ResidualNetwork residual;
+    private final int value;
+    private final BitSet sourceSide;    // vertices reachable from the source in the residual network
+    private final int[] cutArcs;        // forward arcs from the source side to the sink side
+
+    MinCut(ResidualNetwork residual, int value, BitSet sourceSide, int[] cutArcs) {
+        this.residual = residual;
+        this.value = value;
+        this.sourceSide = sourceSide;
+        this.cutArcs = cutArcs;
+    }
+
+
+    /** Getters **/
+
+    /**
+     * @return capacity of the cut, which equals the value of the maximum flow
+     */
+    public int value() {
+        return value;
+    }
+
+    /**
+     * @return vertices on the source side of the cut. Not copied, so do not modify it.
+     */
+    public BitSet sourceSide() {
+        return sourceSide;
+    }
+
+    /**
+     * Is vertex v on the source side of the cut?
+     * @param v vertex number
+     * @return <tt>true</tt> if v is on the source side, and <tt>false</tt> if it is on the sink side
+     */
+    public boolean inSourceSide(int v) {
+        return sourceSide.get(v);
+    }
+
+    /**
+     * @return forward arcs of {@link #residual()} with positive capacity which lead from the source side to the
+     *    sink side, in the order the final breadth first search scanned their tails. Not copied, so do not modify it.
+     */
+    public int[] cutArcs() {
+        return cutArcs;
+    }
+
+    /**
+     * @return residual network carrying the maximum flow, the cut arcs are numbered within it
+     */
+    public ResidualNetwork residual() {
+        return residual;
+    }
+}
@@ -0,0 +1,319 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds a directed cycle of minimum mean costs (total costs divided by the number of edges) by Howard's policy
+ * iteration. Edges which have no capacity remaining are ignored.
+ * <p>
+ * Every vertex follows one outgoing edge, its policy. The policy graph is evaluated: each vertex reaches one of its
+ * cycles and gets that cycle's mean and its distance to it. Vertices then switch to edges leading to a smaller mean,
+ * or to a shorter distance for the same mean, until no vertex can improve. Means and distances are kept as exact
+ * fractions, so the iteration terminates without floating point tolerances.
+ */
+public class MinimumMeanCycle {
+
+    private List<DirectedEdge> cycle;   // minimum mean cycle (or null if the digraph is acyclic)
+    private long cycleCosts;
+    private int cycleLength;
+
+    private int[] tail;                 // tail[e] = index of the tail of edge e
+    private int[] head;                 // head[e] = index of the head of edge e
+    private long[] costs;
+    private DirectedEdge[] edges;
+    private int[] first;                // first[v] .. first[v + 1] - 1 = edges leaving vertex index v
+    private boolean[] removed;          // removed[v] = vertex v can not be part of any cycle
+
+    private int[] policy;               // policy[v] = edge followed by v
+    private long[] meanNumerator;       // mean of the cycle reached by v = meanNumerator[v] / meanDenominator[v]
+    private long[] meanDenominator;
+    private long[] distance;            // distance[v] = distance of v to its cycle, multiplied by meanDenominator[v]
+
+    /**
+     * Determines a minimum mean cycle of the edge-weighted digraph <tt>G</tt>, if it has any cycle.
+     * @param G the edge-weighted digraph
+     */
+    public MinimumMeanCycle(Digraph G) {
+        index(G);
+        removeAcyclicVertices();
+
+        int nodes = first.length - 1;
+        policy = new int[nodes];
+        meanNumerator = new long[nodes];
+        meanDenominator = new long[nodes];
+        distance = new long[nodes];
+
+        // Start with the cheapest edge of every vertex
+        boolean anyVertex = false;
+        for (int v = 0; v < nodes; v++) {
+            if (removed[v]) {
+                continue;
+            }
+            anyVertex = true;
+            policy[v] = -1;
+            for (int e = first[v]; e < first[v + 1]; e++) {
+                if (!removed[head[e]] && (-1 == policy[v] || costs[e] < costs[policy[v]])) {
+                    policy[v] = e;
+                }
+            }
+        }
+        if (!anyVertex) {
+            return;
+        }
+
+        int best;
+        do {
+            best = evaluate();
+        } while (improve());
+
+        // Collect the best cycle of the final policy
+        cycle = new ArrayList<>();
+        int v = best;
+        do {
+            cycle.add(edges[policy[v]]);
+            cycleCosts += costs[policy[v]];
+            v = head[policy[v]];
+        } while (v != best);
+        cycleLength = cycle.size();
+    }
+
+    // assigns dense indices to the vertices and collects the edges with remaining capacity
+    private void index(Digraph G) {
+        Set<Integer> nodeSet = G.nodes();
+        Map<Integer, Integer> indexOf = new HashMap<>(2 * nodeSet.size());
+        int[] node = new int[nodeSet.size()];
+        for (int v : nodeSet) {
+            node[indexOf.size()] = v;
+            indexOf.put(v, indexOf.size());
+        }
+
+        List<DirectedEdge> usable = new ArrayList<>();
+        first = new int[node.length + 1];
+        for (int v = 0; v < node.length; v++) {
+            for (DirectedEdge e : G.neighbors(node[v])) {
+                if (e.capacity() - e.flow() > 0) {
+                    usable.add(e);
+                }
+            }
+            first[v + 1] = usable.size();
+        }
+
+        edges = usable.toArray(new DirectedEdge[usable.size()]);
+        tail = new int[edges.length];
+        head = new int[edges.length];
+        costs = new long[edges.length];
+        for (int v = 0; v < node.length; v++) {
+            for (int e = first[v]; e < first[v + 1]; e++) {
+                tail[e] = v;
+                head[e] = indexOf.get(edges[e].to());
+                costs[e] = edges[e].costs();
+            }
+        }
+    }
+
+    // repeatedly removes vertices without outgoing edges, so that every remaining vertex can follow a policy
+    private void removeAcyclicVertices() {
+        int nodes = first.length - 1;
+        removed = new boolean[nodes];
+        int[] outDegree = new int[nodes];
+        int[] inFirst = new int[nodes + 1];
+        for (int e = 0; e < edges.length; e++) {
+            outDegree[tail[e]]++;
+            inFirst[head[e] + 1]++;
+        }
+        for (int v = 0; v < nodes; v++) {
+            inFirst[v + 1] += inFirst[v];
+        }
+        int[] inEdges = new int[edges.length];
+        int[] next = new int[nodes];
+        System.arraycopy(inFirst, 0, next, 0, nodes);
+        for (int e = 0; e < edges.length; e++) {
+            inEdges[next[head[e]]++] = e;
+        }
+
+        int[] stack = new int[nodes];
+        int size = 0;
+        for (int v = 0; v < nodes; v++) {
+            if (0 == outDegree[v]) {
+                stack[size++] = v;
+                removed[v] = true;
+            }
+        }
+        while (size > 0) {
+            int w = stack[--size];
+            for (int i = inFirst[w]; i < inFirst[w + 1]; i++) {
+                int v = tail[inEdges[i]];
+                if (!removed[v] && 0 == --outDegree[v]) {
+                    stack[size++] = v;
+                    removed[v] = true;
+                }
+            }
+        }
+    }
+
+    // computes mean and distance of every vertex under the current policy, returns a vertex on the best cycle
+    private int evaluate() {
+        int nodes = first.length - 1;
+        byte[] state = new byte[nodes];     // 0 = new, 1 = on the current walk, 2 = evaluated
+        int[] walk = new int[nodes];
+        int best = -1;
+
+        for (int start = 0; start < nodes; start++) {
+            if (removed[start] || 0 != state[start]) {
+                continue;
+            }
+
+            // Follow the policy until an evaluated vertex or the current walk is met again
+            int size = 0;
+            int v = start;
+            while (0 == state[v]) {
+                state[v] = 1;
+                walk[size++] = v;
+                v = head[policy[v]];
+            }
+
+            if (1 == state[v]) {
+                // New cycle from v to the end of the walk
+                int cycleStart = size - 1;
+                while (walk[cycleStart] != v) {
+                    cycleStart--;
+                }
+                long total = 0;
+                for (int i = cycleStart; i < size; i++) {
+                    total += costs[policy[walk[i]]];
+                }
+                long length = size - cycleStart;
+                long divisor = gcd(Math.abs(total), length);
+                long numerator = total / divisor;
+                long denominator = length / divisor;
+
+                distance[v] = 0;
+                meanNumerator[v] = numerator;
+                meanDenominator[v] = denominator;
+                state[v] = 2;
+                for (int i = size - 1; i > cycleStart; i--) {
+                    setFromSuccessor(walk[i]);
+                    state[walk[i]] = 2;
+                }
+                size = cycleStart;
+
+                if (-1 == best || numerator * meanDenominator[best] < meanNumerator[best] * denominator) {
+                    best = v;
+                }
+            }
+
+            // The rest of the walk leads into an evaluated vertex
+            for (int i = size - 1; i >= 0; i--) {
+                setFromSuccessor(walk[i]);
+                state[walk[i]] = 2;
+            }
+        }
+        return best;
+    }
+
+    private void setFromSuccessor(int v) {
+        int e = policy[v];
+        int w = head[e];
+        meanNumerator[v] = meanNumerator[w];
+        meanDenominator[v] = meanDenominator[w];
+        distance[v] = meanDenominator[w] * costs[e] - meanNumerator[w] + distance[w];
+    }
+
+    // switches vertices to better edges, returns whether the policy changed
+    private boolean improve() {
+        int nodes = first.length - 1;
+        boolean improved = false;
+
+        // First try to reach a cycle with smaller mean
+        for (int v = 0; v < nodes; v++) {
+            if (removed[v]) {
+                continue;
+            }
+            int bestEdge = -1;
+            int bestVertex = v;
+            for (int e = first[v]; e < first[v + 1]; e++) {
+                int w = head[e];
+                if (!removed[w] && meanNumerator[w] * meanDenominator[bestVertex] < meanNumerator[bestVertex] * meanDenominator[w]) {
+                    bestEdge = e;
+                    bestVertex = w;
+                }
+            }
+            if (-1 != bestEdge) {
+                policy[v] = bestEdge;
+                improved = true;
+            }
+        }
+        if (improved) {
+            return true;
+        }
+
+        // Otherwise shorten the distances to the cycles
+        for (int v = 0; v < nodes; v++) {
+            if (removed[v]) {
+                continue;
+            }
+            long best = distance[v];
+            for (int e = first[v]; e < first[v + 1]; e++) {
+                int w = head[e];
+                if (removed[w] || meanNumerator[w] != meanNumerator[v] || meanDenominator[w] != meanDenominator[v]) {
+                    continue;
+                }
+                long d = meanDenominator[v] * costs[e] - meanNumerator[v] + distance[w];
+                if (d < best) {
+                    best = d;
+                    policy[v] = e;
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    private static long gcd(long a, long b) {
+        while (0 != b) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+
+    /**
+     * Does the edge-weighted digraph have a directed cycle?
+     * @return <tt>true</tt> if the edge-weighted digraph has a directed cycle, <tt>false</tt> otherwise
+     */
+    public boolean hasCycle() {
+        return cycle != null;
+    }
+
+    /**
+     * Returns a directed cycle of minimum mean costs, and <tt>null</tt> if the digraph is acyclic.
+     * @return minimum mean cycle as an iterable of edges in walking order, or <tt>null</tt>
+     */
+    public Iterable<DirectedEdge> cycle() {
+        return cycle;
+    }
+
+    /**
+     * @return mean costs of the minimum mean cycle
+     * @throws UnsupportedOperationException if the digraph is acyclic
+     */
+    public double mean() {
+        if (!hasCycle())
+            throw new UnsupportedOperationException("Digraph is acyclic");
+        return (double) cycleCosts / cycleLength;
+    }
+
+    /**
+     * @return total costs of the minimum mean cycle
+     * @throws UnsupportedOperationException if the digraph is acyclic
+     */
+    public long costs() {
+        if (!hasCycle())
+            throw new UnsupportedOperationException("Digraph is acyclic");
+        return cycleCosts;
+    }
+}
@@ -0,0 +1,436 @@
+import java.util.Arrays;
+
+/**
+ * Shrinks a flow network before it is solved, and maps the solution back onto the original edges.
+ * <ul>
+ *     <li>Vertices which are not reachable from the source or cannot reach the sink are pruned with their edges,
+ *     as are self loops and edges without capacity.</li>
+ *     <li>Parallel edges with equal costs are merged into one edge carrying the summed capacity.</li>
+ *     <li>Series chains through vertices with one incoming and one outgoing edge are contracted into one edge
+ *     with the minimum capacity and the summed costs. A chain leading back to where it started is dropped.</li>
+ * </ul>
+ * Merging and contracting repeat until neither changes the network. Every edge of the reduced network stands for
+ * a tree of original edges, so a flow on it is spread over its parallel edges up to their capacities and passed on
+ * to every edge of its chains. The reduction keeps maximum flow values and, as long as there are no negative
+ * cost cycles, minimum costs.
+ */
+public class NetworkReduction {
+
+    private static final byte ORIGINAL = 0;     // edge of the input digraph
+    private static final byte PARALLEL = 1;     // parallel edges with equal costs
+    private static final byte SERIES = 2;       // chain of edges, in walking order
+
+    private final DirectedEdge[] edges;         // edges of the input digraph which survived pruning
+
+    // Edges of the reduction, original ones first. Merged and contracted edges refer to their children.
+    private final int[] tail;
+    private final int[] head;
+    private final int[] capacity;
+    private final int[] costs;
+    private final byte[] kind;
+    private final int[] childFirst;             // children of edge x are children[childFirst[x] .. childFirst[x + 1] - 1]
+    private final int[] children;
+    private final boolean[] alive;              // alive[x] if x is an edge of the reduced network
+    private int size;                           // number of edges created so far
+    private int childCount;
+
+    private final int source;
+    private final int sink;
+    private final int[] vertex;                 // vertex[u] = reduced number of original vertex u, -1 if removed
+    private final int[] originalVertex;         // originalVertex[v] = original number of reduced vertex v
+    private final int[] reducedEdge;            // reducedEdge[e] = edge of the reduction behind edge e of graph
+    private final CompactDigraph graph;
+
+    /**
+     * Reduces the network
+     * @param G directed graph without residual edges, vertex numbers must not be negative
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @throws IllegalArgumentException if source or sink are negative or coincide, or G contains a negative vertex number
+     *    or its vertex numbers are too sparse, see {@link Digraph#vertexSlots(int...)}
+     */
+    public NetworkReduction(Digraph G, int source, int sink) {
+        if (source < 0 || sink < 0 || source == sink) {
+            throw new IllegalArgumentException("source and sink must be distinct non-negative vertices");
+        }
+
+        int nodes = G.vertexSlots(source, sink);
+
+        edges = prune(G, nodes, source, sink);
+        int m = edges.length;
+        tail = new int[2 * m + 1];
+        head = new int[2 * m + 1];
+        capacity = new int[2 * m + 1];
+        costs = new int[2 * m + 1];
+        kind = new byte[2 * m + 1];
+        childFirst = new int[2 * m + 2];
+        children = new int[2 * m + 1];
+        alive = new boolean[2 * m + 1];
+        for (DirectedEdge e : edges) {
+            create(e.from(), e.to(), e.capacity(), e.costs(), ORIGINAL);
+        }
+
+        // Merging may create new chains and contracting new parallel edges
+        boolean changed;
+        do {
+            changed = mergeParallel(nodes);
+            changed |= contractSeries(nodes, source, sink);
+        } while (changed);
+
+        // Renumber the remaining vertices in their original order
+        vertex = new int[nodes];
+        Arrays.fill(vertex, -1);
+        vertex[source] = 0;
+        vertex[sink] = 0;
+        for (int x = 0; x < size; x++) {
+            if (alive[x]) {
+                vertex[tail[x]] = 0;
+                vertex[head[x]] = 0;
+            }
+        }
+        int numberNodes = 0;
+        for (int u = 0; u < nodes; u++) {
+            if (-1 != vertex[u]) {
+                vertex[u] = numberNodes++;
+            }
+        }
+        originalVertex = new int[numberNodes];
+        for (int u = 0; u < nodes; u++) {
+            if (-1 != vertex[u]) {
+                originalVertex[vertex[u]] = u;
+            }
+        }
+        this.source = vertex[source];
+        this.sink = vertex[sink];
+
+        // Group the remaining edges by tail, in the order the compact digraph stores them
+        int[] first = new int[numberNodes + 1];
+        int numberEdges = 0;
+        for (int x = 0; x < size; x++) {
+            if (alive[x]) {
+                first[vertex[tail[x]] + 1]++;
+                numberEdges++;
+            }
+        }
+        for (int v = 0; v < numberNodes; v++) {
+            first[v + 1] += first[v];
+        }
+        reducedEdge = new int[numberEdges];
+        int[] from = new int[numberEdges];
+        int[] to = new int[numberEdges];
+        int[] capacities = new int[numberEdges];
+        int[] edgeCosts = new int[numberEdges];
+        for (int x = 0; x < size; x++) {
+            if (alive[x]) {
+                int e = first[vertex[tail[x]]]++;
+                reducedEdge[e] = x;
+                from[e] = vertex[tail[x]];
+                to[e] = vertex[head[x]];
+                capacities[e] = capacity[x];
+                edgeCosts[e] = costs[x];
+            }
+        }
+        graph = new CompactDigraph(numberNodes, from, to, capacities, edgeCosts);
+    }
+
+
+    /** Getters **/
+
+    /**
+     * @return reduced network, with vertices numbered 0 .. numberNodes() - 1
+     */
+    public CompactDigraph graph() {
+        return graph;
+    }
+
+    /**
+     * @return number of the source in the reduced network
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * @return number of the sink in the reduced network
+     */
+    public int sink() {
+        return sink;
+    }
+
+    /**
+     * @param u original vertex number
+     * @return number of u in the reduced network, -1 if u has been removed
+     */
+    public int vertex(int u) {
+        return u >= 0 && u < vertex.length ? vertex[u] : -1;
+    }
+
+    /**
+     * @param v vertex number in the reduced network
+     * @return original number of v
+     */
+    public int originalVertex(int v) {
+        return originalVertex[v];
+    }
+
+
+    /**
+     * Writes the flow of the solved reduced network onto the original edges. Pruned edges receive no flow.
+     * @param residual residual network of {@link #graph()}, carrying the flow found by a solver
+     * @throws IllegalArgumentException if residual does not belong to the reduced network
+     */
+    public void expand(ResidualNetwork residual) {
+        if (residual.numberArcs() != 2 * reducedEdge.length) {
+            throw new IllegalArgumentException("residual network does not belong to the reduced network");
+        }
+        for (DirectedEdge e : edges) {
+            e.flow(0);
+        }
+
+        // Hand the flow down the trees, every edge of the reduction is pushed at most once
+        int[] stack = new int[size];
+        int[] stackFlow = new int[size];
+        int top = 0;
+        for (int e = 0; e < reducedEdge.length; e++) {
+            int flow = residual.flow(2 * e);
+            if (flow > 0) {
+                stack[top] = reducedEdge[e];
+                stackFlow[top++] = flow;
+            }
+        }
+        while (top > 0) {
+            int x = stack[--top];
+            int flow = stackFlow[top];
+            switch (kind[x]) {
+                case ORIGINAL:
+                    edges[x].flow(flow);
+                    break;
+                case SERIES:
+                    for (int i = childFirst[x]; i < childFirst[x + 1]; i++) {
+                        stack[top] = children[i];
+                        stackFlow[top++] = flow;
+                    }
+                    break;
+                default:
+                    // Parallel edges have equal costs, so any split within their capacities will do
+                    for (int i = childFirst[x]; i < childFirst[x + 1] && flow > 0; i++) {
+                        int share = Math.min(flow, capacity[children[i]]);
+                        stack[top] = children[i];
+                        stackFlow[top++] = share;
+                        flow -= share;
+                    }
+            }
+        }
+    }
+
+
+    // edges of G with capacity on some path from source to sink, without self loops
+    private static DirectedEdge[] prune(Digraph G, int nodes, int source, int sink) {
+        DirectedEdge[] all = new DirectedEdge[G.numberEdges()];
+        int m = 0;
+        for (DirectedEdge e : G.edges()) {
+            if (!e.isResidualEdge() && e.capacity() > 0 && e.from() != e.to()) {
+                all[m++] = e;
+            }
+        }
+
+        boolean[] forward = reachable(all, m, nodes, source, true);
+        boolean[] backward = reachable(all, m, nodes, sink, false);
+        int kept = 0;
+        for (int i = 0; i < m; i++) {
+            DirectedEdge e = all[i];
+            if (forward[e.from()] && backward[e.from()] && forward[e.to()] && backward[e.to()]) {
+                all[kept++] = e;
+            }
+        }
+        return Arrays.copyOf(all, kept);
+    }
+
+    // breadth first search from start along the edges, or against them if not forward
+    private static boolean[] reachable(DirectedEdge[] edges, int m, int nodes, int start, boolean forward) {
+        int[] first = new int[nodes + 1];
+        int[] adjacent = new int[m];
+        for (int i = 0; i < m; i++) {
+            first[(forward ? edges[i].from() : edges[i].to()) + 1]++;
+        }
+        for (int v = 0; v < nodes; v++) {
+            first[v + 1] += first[v];
+        }
+        int[] next = Arrays.copyOf(first, nodes);
+        for (int i = 0; i < m; i++) {
+            DirectedEdge e = edges[i];
+            adjacent[next[forward ? e.from() : e.to()]++] = forward ? e.to() : e.from();
+        }
+
+        boolean[] reached = new boolean[nodes];
+        int[] queue = new int[nodes];
+        int tail = 0;
+        reached[start] = true;
+        queue[tail++] = start;
+        for (int head = 0; head < tail; head++) {
+            int u = queue[head];
+            for (int i = first[u]; i < first[u + 1]; i++) {
+                int v = adjacent[i];
+                if (!reached[v]) {
+                    reached[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return reached;
+    }
+
+    // merges the alive edges with equal tail, head and costs. Returns whether any were merged.
+    private boolean mergeParallel(int nodes) {
+        // Sort by head and then stably by tail, so parallel edges become neighbours
+        int[] byHead = sortAlive(head, null, nodes);
+        int[] order = sortAlive(tail, byHead, nodes);
+
+        boolean changed = false;
+        for (int start = 0, end; start < order.length; start = end) {
+            int x = order[start];
+            end = start + 1;
+            while (end < order.length && tail[order[end]] == tail[x] && head[order[end]] == head[x]) {
+                end++;
+            }
+            if (end - start < 2) {
+                continue;
+            }
+
+            // Runs of parallel edges are short, so group them by costs with insertion sort
+            for (int i = start + 1; i < end; i++) {
+                int y = order[i];
+                int j = i;
+                for (; j > start && costs[order[j - 1]] > costs[y]; j--) {
+                    order[j] = order[j - 1];
+                }
+                order[j] = y;
+            }
+            for (int from = start, to; from < end; from = to) {
+                to = from + 1;
+                long sum = capacity[order[from]];
+                while (to < end && costs[order[to]] == costs[order[from]]) {
+                    sum += capacity[order[to++]];
+                }
+                if (to - from > 1) {
+                    int merged = create(tail[x], head[x], (int) Math.min(sum, Integer.MAX_VALUE), costs[order[from]], PARALLEL);
+                    for (int i = from; i < to; i++) {
+                        addChild(merged, order[i]);
+                    }
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    // alive edges in stable counting sort order of key, taking them in the given order or by number if null
+    private int[] sortAlive(int[] key, int[] order, int nodes) {
+        if (null == order) {
+            int count = 0;
+            for (int x = 0; x < size; x++) {
+                if (alive[x]) {
+                    count++;
+                }
+            }
+            order = new int[count];
+            count = 0;
+            for (int x = 0; x < size; x++) {
+                if (alive[x]) {
+                    order[count++] = x;
+                }
+            }
+        }
+
+        int[] next = new int[nodes + 1];
+        for (int x : order) {
+            next[key[x] + 1]++;
+        }
+        for (int v = 0; v < nodes; v++) {
+            next[v + 1] += next[v];
+        }
+        int[] sorted = new int[order.length];
+        for (int x : order) {
+            sorted[next[key[x]]++] = x;
+        }
+        return sorted;
+    }
+
+    // contracts vertices with one incoming and one outgoing edge. Returns whether any were contracted.
+    private boolean contractSeries(int nodes, int source, int sink) {
+        int[] in = new int[nodes];          // in[v] = number of alive edges entering v
+        int[] out = new int[nodes];         // out[v] = number of alive edges leaving v
+        int[] inEdge = new int[nodes];      // inEdge[v] = the edge entering v, if in[v] == 1
+        int[] outEdge = new int[nodes];     // outEdge[v] = the edge leaving v, if out[v] == 1
+        int end = size;
+        for (int x = 0; x < end; x++) {
+            if (alive[x]) {
+                out[tail[x]]++;
+                outEdge[tail[x]] = x;
+                in[head[x]]++;
+                inEdge[head[x]] = x;
+            }
+        }
+
+        // Contracting v does not change the degrees of its neighbours, only which edge they see
+        boolean changed = false;
+        for (int v = 0; v < nodes; v++) {
+            if (v == source || v == sink || 1 != in[v] || 1 != out[v]) {
+                continue;
+            }
+            int a = inEdge[v];
+            int b = outEdge[v];
+            int u = tail[a];
+            int w = head[b];
+            long chainCosts = (long) costs[a] + costs[b];
+            if (u == w) {
+                // Flow around the loop u -> v -> u can only raise the costs
+                if (chainCosts >= 0) {
+                    alive[a] = false;
+                    alive[b] = false;
+                    out[u] = -1;    // The edges of u are no longer known, leave u to the next pass
+                    in[u] = -1;
+                    changed = true;
+                }
+                continue;
+            }
+            if (chainCosts > Integer.MAX_VALUE || chainCosts < Integer.MIN_VALUE) {
+                continue;
+            }
+
+            int chain = create(u, w, Math.min(capacity[a], capacity[b]), (int) chainCosts, SERIES);
+            addChild(chain, a);
+            addChild(chain, b);
+            if (1 == out[u]) {
+                outEdge[u] = chain;
+            }
+            if (1 == in[w]) {
+                inEdge[w] = chain;
+            }
+            in[v] = 0;
+            out[v] = 0;
+            changed = true;
+        }
+        return changed;
+    }
+
+    // appends an alive edge of the reduction, whose children are added right after
+    private int create(int from, int to, int edgeCapacity, int edgeCosts, byte edgeKind) {
+        int x = size++;
+        tail[x] = from;
+        head[x] = to;
+        capacity[x] = edgeCapacity;
+        costs[x] = edgeCosts;
+        kind[x] = edgeKind;
+        alive[x] = true;
+        childFirst[x] = childCount;
+        childFirst[x + 1] = childCount;
+        return x;
+    }
+
+    private void addChild(int x, int child) {
+        children[childCount++] = child;
+        childFirst[x + 1] = childCount;
+        alive[child] = false;
+    }
+}
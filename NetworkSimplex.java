@@ -0,0 +1,317 @@
+import java.util.Arrays;
+
+/**
+ * Primal network simplex algorithm for min-cost-flow problems.
+ * <p>
+ * The basis is a spanning tree rooted at an artificial vertex, which is initially connected to every vertex by
+ * an artificial arc of very high costs. The tree is kept in parent, predecessor-arc and depth arrays together with
+ * child lists, so a pivot only touches the subtree which is moved. Entering arcs are chosen by block search: the
+ * arcs are scanned in blocks of about sqrt(E) and the most violating arc of the first block containing one enters.
+ * Leaving arcs are chosen to keep the tree strongly feasible, which prevents cycling on degenerate pivots.
+ */
+public class NetworkSimplex {
+
+    private static final byte STATE_UPPER = -1;     // non-tree arc at its capacity
+    private static final byte STATE_TREE = 0;       // arc of the spanning tree
+    private static final byte STATE_LOWER = 1;      // non-tree arc without flow
+    private static final int DIR_UP = 1;            // predecessor arc points from the vertex to its parent
+    private static final int DIR_DOWN = -1;         // predecessor arc points from the parent to the vertex
+    private static final long INFINITY = Long.MAX_VALUE / 4;
+
+    private final int nodes;
+    private final int root;
+    private final int arcs;                 // number of real arcs, arc arcs + v is the artificial arc of v
+
+    private final int[] source;
+    private final int[] target;
+    private final long[] capacity;
+    private final long[] costs;
+    private final long[] flow;
+    private final byte[] state;
+
+    private final int[] parent;             // parent[v] = parent of v in the spanning tree
+    private final int[] pred;               // pred[v] = arc connecting v to its parent
+    private final int[] predDir;            // predDir[v] = DIR_UP or DIR_DOWN
+    private final int[] depth;
+    private final long[] potential;
+    private final int[] firstChild;         // firstChild[v] = a child of v, -1 if v is a leaf
+    private final int[] nextSibling;
+    private final int[] prevSibling;
+
+    private int nextArc;                    // where the block search continues
+    private final int blockSize;
+
+    // enters all edges of G and the artificial starting tree
+    private NetworkSimplex(CompactDigraph G, int sourceNode, int sinkNode, int demand) {
+        nodes = G.numberNodes();
+        root = nodes;
+        arcs = G.numberEdges();
+        int allArcs = arcs + nodes;
+
+        source = new int[allArcs];
+        target = new int[allArcs];
+        capacity = new long[allArcs];
+        costs = new long[allArcs];
+        flow = new long[allArcs];
+        state = new byte[allArcs];
+
+        long maxCosts = 0;
+        for (int v = 0; v < nodes; v++) {
+            for (int e = G.first(v); e < G.first(v + 1); e++) {
+                source[e] = v;
+                target[e] = G.to(e);
+                capacity[e] = G.capacity(e);
+                costs[e] = G.costs(e);
+                state[e] = STATE_LOWER;
+                maxCosts = Math.max(maxCosts, Math.abs(costs[e]));
+            }
+        }
+
+        parent = new int[nodes + 1];
+        pred = new int[nodes + 1];
+        predDir = new int[nodes + 1];
+        depth = new int[nodes + 1];
+        potential = new long[nodes + 1];
+        firstChild = new int[nodes + 1];
+        nextSibling = new int[nodes + 1];
+        prevSibling = new int[nodes + 1];
+        Arrays.fill(firstChild, -1);
+        parent[root] = -1;
+        pred[root] = -1;
+
+        // Every vertex hangs below the root by its artificial arc, which carries the supply of the vertex
+        long artificialCosts = (maxCosts + 1) * (nodes + 1);
+        for (int v = 0; v < nodes; v++) {
+            int e = arcs + v;
+            long supply = (v == sourceNode) ? demand : (v == sinkNode) ? -demand : 0;
+            capacity[e] = INFINITY;
+            state[e] = STATE_TREE;
+            if (supply >= 0) {
+                source[e] = v;
+                target[e] = root;
+                flow[e] = supply;
+                predDir[v] = DIR_UP;
+                potential[v] = 0;
+            } else {
+                source[e] = root;
+                target[e] = v;
+                flow[e] = -supply;
+                costs[e] = artificialCosts;
+                predDir[v] = DIR_DOWN;
+                potential[v] = artificialCosts;
+            }
+            parent[v] = root;
+            pred[v] = e;
+            depth[v] = 1;
+            attach(v, root);
+        }
+
+        blockSize = Math.max(10, (int) Math.sqrt(arcs));
+    }
+
+
+    /**
+     * Determine the minimal costs to send demand flow from source to sink
+     * @param digraph directed graph, which can also contain several edges sharing the same source and sink vertex
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param demand flow which to send through the network
+     * @return minimal costs to send demand through the network
+     * @throws IllegalArgumentException if there is not enough capacity to send demand flow from source to sink
+     */
+    public static int minCostFlow(final Digraph digraph, final int source, final int sink, final int demand) {
+        return (int) minCostFlow(digraph.compact(), source, sink, demand);
+    }
+
+
+    /**
+     * Determine the minimal costs to send demand flow from source to sink
+     * @param G compact directed graph with capacities and costs
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param demand flow which to send through the network
+     * @return minimal costs to send demand through the network
+     * @throws IllegalArgumentException if there is not enough capacity to send demand flow from source to sink
+     */
+    public static long minCostFlow(final CompactDigraph G, final int source, final int sink, final int demand) {
+        if (demand <= 0) {
+            return 0;
+        }
+        if (source < 0 || source >= G.numberNodes() || sink < 0 || sink >= G.numberNodes() || source == sink) {
+            throw new IllegalArgumentException("Not enough capacity to send " + demand + " flow from source to sink");
+        }
+
+        NetworkSimplex simplex = new NetworkSimplex(G, source, sink, demand);
+        int in;
+        while (-1 != (in = simplex.findEnteringArc())) {
+            simplex.pivot(in);
+        }
+
+        // Flow left on an artificial arc cannot be routed through the real network
+        for (int v = 0; v < simplex.nodes; v++) {
+            if (0 != simplex.flow[simplex.arcs + v]) {
+                throw new IllegalArgumentException("Not enough capacity to send " + demand + " flow from source to sink");
+            }
+        }
+
+        long costs = 0;
+        for (int e = 0; e < simplex.arcs; e++) {
+            costs += simplex.flow[e] * simplex.costs[e];
+        }
+        return costs;
+    }
+
+
+    // block search pivot rule, returns -1 if the current tree is optimal
+    private int findEnteringArc() {
+        int best = -1;
+        long bestViolation = 0;
+        int scanned = 0;
+        for (int count = 0; count < arcs; count++) {
+            int e = nextArc;
+            nextArc = (nextArc + 1 == arcs) ? 0 : nextArc + 1;
+
+            long violation = state[e] * (costs[e] + potential[source[e]] - potential[target[e]]);
+            if (violation < bestViolation) {
+                bestViolation = violation;
+                best = e;
+            }
+            if (++scanned == blockSize) {
+                if (-1 != best) {
+                    return best;
+                }
+                scanned = 0;
+            }
+        }
+        return best;
+    }
+
+    // sends flow around the cycle closed by arc in and exchanges the leaving arc in the spanning tree
+    private void pivot(int in) {
+        // Find the join node, where the tree paths from both ends of arc in meet
+        int u = source[in];
+        int v = target[in];
+        while (u != v) {
+            if (depth[u] > depth[v]) {
+                u = parent[u];
+            } else if (depth[u] < depth[v]) {
+                v = parent[v];
+            } else {
+                u = parent[u];
+                v = parent[v];
+            }
+        }
+        int join = u;
+
+        // Find the leaving arc: the last blocking arc in cycle direction, seen from the join node
+        int first = (STATE_LOWER == state[in]) ? source[in] : target[in];
+        int second = (STATE_LOWER == state[in]) ? target[in] : source[in];
+        long delta = capacity[in];
+        int result = 0;
+        int out = -1;
+        for (u = first; u != join; u = parent[u]) {
+            int e = pred[u];
+            long d = (DIR_UP == predDir[u]) ? flow[e] : capacity[e] - flow[e];
+            if (d < delta) {
+                delta = d;
+                out = u;
+                result = 1;
+            }
+        }
+        for (u = second; u != join; u = parent[u]) {
+            int e = pred[u];
+            long d = (DIR_UP == predDir[u]) ? capacity[e] - flow[e] : flow[e];
+            if (d <= delta) {
+                delta = d;
+                out = u;
+                result = 2;
+            }
+        }
+
+        // Augment along the cycle
+        if (delta > 0) {
+            long value = state[in] * delta;
+            flow[in] += value;
+            for (u = source[in]; u != join; u = parent[u]) {
+                flow[pred[u]] -= predDir[u] * value;
+            }
+            for (u = target[in]; u != join; u = parent[u]) {
+                flow[pred[u]] += predDir[u] * value;
+            }
+        }
+
+        if (0 == result) {
+            // Arc in is the bottleneck itself and just moves to its other bound
+            state[in] = (byte) -state[in];
+            return;
+        }
+
+        int leaving = pred[out];
+        state[in] = STATE_TREE;
+        state[leaving] = (0 == flow[leaving]) ? STATE_LOWER : STATE_UPPER;
+
+        // Re-hang the subtree cut off by the leaving arc below the other end of arc in, reversing the stem
+        int uIn = (1 == result) ? first : second;
+        int vIn = (1 == result) ? second : first;
+        int newParent = vIn;
+        int newPred = in;
+        u = uIn;
+        while (true) {
+            int oldParent = parent[u];
+            int oldPred = pred[u];
+            detach(u);
+            parent[u] = newParent;
+            pred[u] = newPred;
+            predDir[u] = (source[newPred] == u) ? DIR_UP : DIR_DOWN;
+            attach(u, newParent);
+            if (u == out) {
+                break;
+            }
+            newParent = u;
+            newPred = oldPred;
+            u = oldParent;
+        }
+
+        // Shift the potentials of the moved subtree so that arc in gets zero reduced costs, and fix the depths
+        long newPotential = (DIR_UP == predDir[uIn]) ? potential[vIn] - costs[in] : potential[vIn] + costs[in];
+        long sigma = newPotential - potential[uIn];
+        u = uIn;
+        while (true) {
+            potential[u] += sigma;
+            depth[u] = depth[parent[u]] + 1;
+
+            // Preorder traversal of the subtree of uIn
+            if (-1 != firstChild[u]) {
+                u = firstChild[u];
+                continue;
+            }
+            while (u != uIn && -1 == nextSibling[u]) {
+                u = parent[u];
+            }
+            if (u == uIn) {
+                break;
+            }
+            u = nextSibling[u];
+        }
+    }
+
+    private void attach(int v, int p) {
+        prevSibling[v] = -1;
+        nextSibling[v] = firstChild[p];
+        if (-1 != firstChild[p]) {
+            prevSibling[firstChild[p]] = v;
+        }
+        firstChild[p] = v;
+    }
+
+    private void detach(int v) {
+        if (-1 != prevSibling[v]) {
+            nextSibling[prevSibling[v]] = nextSibling[v];
+        } else {
+            firstChild[parent[v]] = nextSibling[v];
+        }
+        if (-1 != nextSibling[v]) {
+            prevSibling[nextSibling[v]] = prevSibling[v];
+        }
+    }
+}
@@ -0,0 +1,424 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Multi-threaded push-relabel algorithm for the maximum flow problem, after Hong's (2008) lock-free discharge.
+ * <p>
+ * Worker threads discharge active vertices concurrently. A vertex is owned by at most one worker at a time,
+ * and residual capacities, excesses and heights are updated with atomic operations only: a worker pushes to
+ * the lowest residual neighbour if its own vertex is higher, and otherwise lifts its vertex just above it.
+ * Only the owner of a vertex ever decreases its excess or the residual capacity of its outgoing arcs,
+ * so pushing and relabeling need no locks.
+ * <p>
+ * Each worker keeps its active vertices on a stack of its own, guarded by the worker's monitor. The monitor is
+ * held only to push, pop or hand over half of the stack to an idle worker, which steals from busy ones.
+ * After a fixed amount of relabeling work the workers pause, the exact distance labels are recomputed by a
+ * reverse breadth first search from the sink, and the workers resume. The search runs on the same threads:
+ * each layer of the search is split among them, and vertices of the next layer are claimed by an atomic update
+ * of their distance. Afterwards every thread relabels a range of vertices and hands its active ones to the worker
+ * stacks in one block per worker. The threads are started once per solve in a fixed thread pool and run all
+ * rounds. The flow value is the same as computed by {@link PushRelabel}.
+ * <p>
+ * The residual capacities are copied into an {@link AtomicIntegerArray} on the heap for the solve, 4 bytes per arc,
+ * and written back into the network at the end. This holds for networks stored off-heap as well: atomic access to
+ * the network's own buffers would need VarHandles, which the Java 8 release the build targets does not offer.
+ */
+public class ParallelPushRelabel {
+
+    private static final int ALPHA = 6;     // pause for a global relabel after ALPHA * V + E units of work
+    private static final int MIN_CHUNK = 1 << 12;   // fewest vertices worth a task of their own in the global relabel
+
+    private final ResidualNetwork network;
+    private final int source;
+    private final int sink;
+    private final int nodes;
+
+    private final AtomicIntegerArray residual;  // residual[a] = capacity remaining on arc a
+    private final AtomicLongArray excess;       // excess[v] = inflow - outflow of v
+    private final AtomicIntegerArray height;    // height[v] = distance label of v
+    private final AtomicIntegerArray owned;     // owned[v] = 1 if v is on a worker stack or being discharged
+    private final AtomicLong pending = new AtomicLong();    // vertices on worker stacks or being discharged
+    private final AtomicLong work = new AtomicLong();       // relabel work since the last global relabel
+    private final AtomicBoolean pause = new AtomicBoolean();
+    private final Worker[] workers;
+    private final AtomicIntegerArray distance;  // distance[v] = 1 + distance of v to the sink, 0 if not reached yet
+
+    /**
+     * Computes a maximum flow in the residual network
+     * @param network residual network, holds the maximum flow afterwards
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param threads number of worker threads
+     * @throws IllegalArgumentException if source or sink are not vertices of the network or coincide
+     */
+    public ParallelPushRelabel(ResidualNetwork network, int source, int sink, int threads) {
+        this.network = network;
+        this.source = source;
+        this.sink = sink;
+        this.nodes = network.numberNodes();
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink) {
+            throw new IllegalArgumentException("source and sink must be distinct vertices between 0 and " + (nodes - 1));
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("at least one thread is required");
+        }
+
+        int[] capacities = new int[network.numberArcs()];
+        for (int a = 0; a < capacities.length; a++) {
+            capacities[a] = network.residualCapacity(a);
+        }
+        residual = new AtomicIntegerArray(capacities);
+        excess = new AtomicLongArray(nodes);
+        height = new AtomicIntegerArray(nodes);
+        owned = new AtomicIntegerArray(nodes);
+        distance = new AtomicIntegerArray(nodes);
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+
+        // Saturate all arcs leaving the source
+        for (int i = network.first(source); i < network.first(source + 1); i++) {
+            int a = network.arc(i);
+            int delta = residual.get(a);
+            if (delta > 0) {
+                residual.addAndGet(a, -delta);
+                residual.addAndGet(a ^ 1, delta);
+                excess.addAndGet(source, -delta);
+                excess.addAndGet(network.head(a), delta);
+            }
+        }
+
+        long threshold = (long) ALPHA * nodes + network.numberArcs() / 2;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "push-relabel-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> running = new ArrayList<>(threads);
+            while (globalRelabel(pool) > 0) {
+                work.set(0);
+                pause.set(false);
+                running.clear();
+                for (Worker worker : workers) {
+                    worker.threshold = threshold;
+                    running.add(pool.submit(worker));
+                }
+                for (Future<?> round : running) {
+                    round.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while computing maximum flow", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("worker failed while computing maximum flow", e.getCause());
+        } finally {
+            pause.set(true);
+            pool.shutdownNow();
+        }
+
+        // Write the flow back into the residual network
+        for (int a = 0; a < capacities.length; a += 2) {
+            int delta = network.residualCapacity(a) - residual.get(a);
+            if (delta > 0) {
+                network.push(a, delta);
+            } else if (delta < 0) {
+                network.push(a ^ 1, -delta);
+            }
+        }
+    }
+
+
+    /**
+     * @return value of the maximum flow
+     */
+    public int value() {
+        return (int) excess.get(sink);
+    }
+
+
+    /**
+     * Determine the maximum flow which can be send from source to sink, using all available processors
+     * @param G directed graph
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @return maximum flow, can be 0 if there is no path from source to sink at all
+     */
+    public static int maxFlow(final Digraph G, final int source, final int sink) {
+        return maxFlow(new ResidualNetwork(G), source, sink, Integer.MAX_VALUE, Runtime.getRuntime().availableProcessors());
+    }
+
+
+    /**
+     * Computes a maximum flow in the residual network and reduces it to limit if it is larger
+     * @param residual residual network, modified by the algorithm
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param limit maximum flow to send, Integer.MAX_VALUE for a maximum flow
+     * @param threads number of worker threads
+     * @return flow sent from source to sink
+     */
+    public static int maxFlow(final ResidualNetwork residual, final int source, final int sink, final int limit, final int threads) {
+        int nodes = residual.numberNodes();
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink) {
+            return 0;
+        }
+
+        int curFlow = new ParallelPushRelabel(residual, source, sink, threads).value();
+        if (curFlow > limit) {
+            // Send the surplus back from the sink to the source
+            curFlow -= Dinic.maxFlow(residual, sink, source, curFlow - limit);
+        }
+        return curFlow;
+    }
+
+
+    // recomputes exact distances to the sink and hands all active vertices to the workers, returns their number
+    private long globalRelabel(ExecutorService pool) throws InterruptedException, ExecutionException {
+        final int vertexChunks = chunks(nodes);
+        parallel(pool, vertexChunks, c -> {
+            for (int v = bound(c, nodes, vertexChunks); v < bound(c + 1, nodes, vertexChunks); v++) {
+                distance.set(v, 0);
+            }
+        });
+
+        // Reverse breadth first search from the sink, one layer at a time
+        distance.set(sink, 1);
+        int[] layer = {sink};
+        int size = 1;
+        final int[][] discovered = new int[workers.length][];
+        final int[] discoveredCount = new int[workers.length];
+        while (size > 0) {
+            final int[] frontier = layer;
+            final int count = size;
+            final int chunks = chunks(count);
+            parallel(pool, chunks, c -> {
+                int[] next = new int[16];
+                int n = 0;
+                for (int k = bound(c, count, chunks); k < bound(c + 1, count, chunks); k++) {
+                    int w = frontier[k];
+                    int label = distance.get(w) + 1;
+                    for (int i = network.first(w); i < network.first(w + 1); i++) {
+                        int a = network.arc(i);
+                        int v = network.head(a);
+                        if (residual.get(a ^ 1) > 0 && v != source && distance.compareAndSet(v, 0, label)) {
+                            if (n == next.length) {
+                                next = Arrays.copyOf(next, 2 * n);
+                            }
+                            next[n++] = v;
+                        }
+                    }
+                }
+                discovered[c] = next;
+                discoveredCount[c] = n;
+            });
+
+            size = 0;
+            for (int c = 0; c < chunks; c++) {
+                size += discoveredCount[c];
+            }
+            layer = new int[size];
+            size = 0;
+            for (int c = 0; c < chunks; c++) {
+                System.arraycopy(discovered[c], 0, layer, size, discoveredCount[c]);
+                size += discoveredCount[c];
+            }
+        }
+
+        // Labels only ever grow: vertices cut off from the sink stay at V or above
+        final long[] active = new long[vertexChunks];
+        parallel(pool, vertexChunks, c -> {
+            int[] found = new int[16];
+            int n = 0;
+            for (int v = bound(c, nodes, vertexChunks); v < bound(c + 1, nodes, vertexChunks); v++) {
+                int d = distance.get(v) - 1;
+                if (v == source) {
+                    height.set(v, nodes);
+                } else if (-1 != d) {
+                    height.set(v, Math.max(height.get(v), d));
+                } else {
+                    height.set(v, Math.max(height.get(v), nodes));
+                }
+
+                owned.set(v, 0);
+                if (v != source && v != sink && excess.get(v) > 0) {
+                    owned.set(v, 1);
+                    if (n == found.length) {
+                        found = Arrays.copyOf(found, 2 * n);
+                    }
+                    found[n++] = v;
+                }
+            }
+
+            // Hand an equal share to every worker, starting with a different one for every chunk
+            for (int i = 0; i < workers.length; i++) {
+                Worker worker = workers[(c + i) % workers.length];
+                worker.pushAll(found, bound(i, n, workers.length), bound(i + 1, n, workers.length));
+            }
+            active[c] = n;
+        });
+
+        long total = 0;
+        for (long n : active) {
+            total += n;
+        }
+        pending.set(total);
+        return total;
+    }
+
+    // number of chunks to split count vertices into, at most one per thread
+    private int chunks(int count) {
+        return Math.max(1, Math.min(workers.length, count / MIN_CHUNK));
+    }
+
+    // start of chunk c when count items are split into chunks
+    private static int bound(int c, int count, int chunks) {
+        return (int) ((long) c * count / chunks);
+    }
+
+    // runs body for chunks 0 .. chunks - 1, all but the last one on the pool
+    private static void parallel(ExecutorService pool, int chunks, IntConsumer body)
+            throws InterruptedException, ExecutionException {
+        List<Future<?>> running = new ArrayList<>(chunks - 1);
+        for (int c = 0; c < chunks - 1; c++) {
+            final int chunk = c;
+            running.add(pool.submit(() -> body.accept(chunk)));
+        }
+        body.accept(chunks - 1);
+        for (Future<?> chunk : running) {
+            chunk.get();
+        }
+    }
+
+    // discharges v until it has no excess left or the workers are asked to pause
+    private void discharge(Worker worker, int v) {
+        while (excess.get(v) > 0 && !pause.get()) {
+            // Find the lowest neighbour reachable by a residual arc
+            int lowestArc = -1;
+            int lowestHeight = Integer.MAX_VALUE;
+            for (int i = network.first(v); i < network.first(v + 1); i++) {
+                int a = network.arc(i);
+                if (residual.get(a) > 0) {
+                    int h = height.get(network.head(a));
+                    if (h < lowestHeight) {
+                        lowestHeight = h;
+                        lowestArc = a;
+                    }
+                }
+            }
+
+            if (height.get(v) > lowestHeight) {
+                // Push
+                int w = network.head(lowestArc);
+                int delta = (int) Math.min(excess.get(v), residual.get(lowestArc));
+                residual.addAndGet(lowestArc, -delta);
+                residual.addAndGet(lowestArc ^ 1, delta);
+                excess.addAndGet(v, -delta);
+                excess.addAndGet(w, delta);
+                if (w != source && w != sink && owned.compareAndSet(w, 0, 1)) {
+                    pending.incrementAndGet();
+                    worker.push(w);
+                }
+            } else {
+                // Relabel
+                height.set(v, lowestHeight + 1);
+                if (work.addAndGet(network.first(v + 1) - network.first(v) + 12) > worker.threshold) {
+                    pause.set(true);
+                }
+            }
+        }
+
+        // Release v, and take it back if excess arrived after the last check
+        owned.set(v, 0);
+        if (excess.get(v) > 0 && !pause.get() && owned.compareAndSet(v, 0, 1)) {
+            pending.incrementAndGet();
+            worker.push(v);
+        }
+        pending.decrementAndGet();
+    }
+
+
+    // worker thread with its own stack of active vertices, stealing from the others when it runs dry
+    private class Worker implements Runnable {
+        private final int id;
+        private int[] stack = new int[16];
+        private int size;
+        private long threshold;
+
+        Worker(int id) {
+            this.id = id;
+        }
+
+        synchronized void push(int v) {
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, 2 * size);
+            }
+            stack[size++] = v;
+        }
+
+        synchronized void pushAll(int[] vertices, int from, int to) {
+            int count = to - from;
+            if (size + count > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(2 * stack.length, size + count));
+            }
+            System.arraycopy(vertices, from, stack, size, count);
+            size += count;
+        }
+
+        synchronized int pop() {
+            return (0 == size) ? -1 : stack[--size];
+        }
+
+        // moves half of this worker's vertices to thief, returns whether anything was moved
+        boolean stealInto(Worker thief) {
+            int[] loot;
+            synchronized (this) {
+                int count = (size + 1) / 2;
+                if (0 == count) {
+                    return false;
+                }
+                loot = Arrays.copyOfRange(stack, 0, count);
+                System.arraycopy(stack, count, stack, 0, size - count);
+                size -= count;
+            }
+            thief.pushAll(loot, 0, loot.length);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (!pause.get() && pending.get() > 0) {
+                int v = pop();
+                if (-1 != v) {
+                    discharge(this, v);
+                    continue;
+                }
+
+                boolean stolen = false;
+                for (int i = 1; i < workers.length && !stolen; i++) {
+                    stolen = workers[(id + i) % workers.length].stealInto(this);
+                }
+                if (!stolen) {
+                    Thread.yield();
+                }
+            }
+            synchronized (this) {
+                size = 0;   // the next round starts from a fresh global relabel
+            }
+        }
+    }
+}
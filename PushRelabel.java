@@ -0,0 +1,338 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Highest-label push-relabel algorithm for the maximum flow problem, with global relabeling and the gap heuristic.
+ * <p>
+ * The algorithm runs in two phases. Phase one computes a maximum preflow: active vertices are discharged towards
+ * the sink in order of decreasing height, until no vertex below height V holds excess. The maximum flow value
+ * and the minimum cut are known at this point, which is all many applications need. Phase two turns the
+ * preflow into a flow by returning the remaining excesses to the source.
+ * <p>
+ * Global relabeling periodically recomputes exact distance labels by a reverse breadth first search from the
+ * sink. If relabeling empties a height level, all vertices above it are cut off from the sink (gap heuristic).
+ */
+public class PushRelabel {
+
+    private static final int ALPHA = 6;     // run a global relabel after ALPHA * V + E units of work
+
+    private final ResidualNetwork residual;
+    private final int source;
+    private final int sink;
+    private final int nodes;
+
+    private final int[] height;             // height[v] = distance label of v
+    private final long[] excess;            // excess[v] = inflow - outflow of v
+    private final int[] current;            // current[v] = position of the next arc of v to try
+
+    private final int[] activeFirst;        // activeFirst[h] = first active vertex with height h, -1 if none
+    private final int[] activeNext;         // activeNext[v] = next active vertex with the same height
+    private final int[] allFirst;           // allFirst[h] = first vertex with height h, -1 if none
+    private final int[] allNext;            // allNext[v] = next vertex with the same height
+    private final int[] allPrev;            // allPrev[v] = previous vertex with the same height
+    private final int[] queue;              // breadth first search queue of the global relabeling
+
+    private int maxActive;                  // highest height which might hold an active vertex
+    private int maxHeight;                  // highest height which might hold a vertex
+    private long work;                      // work done since the last global relabeling
+    private final BitSet sourceSide;        // vertices on the source side of the minimum cut
+    private boolean isFlow;                 // has phase two been run?
+
+    /**
+     * Runs phase one on the residual network: computes the maximum flow value and a minimum cut.
+     * @param residual residual network, modified by the algorithm. It holds a preflow afterwards.
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @throws IllegalArgumentException if source or sink are not vertices of the network or coincide
+     */
+    public PushRelabel(ResidualNetwork residual, int source, int sink) {
+        this.residual = residual;
+        this.source = source;
+        this.sink = sink;
+        this.nodes = residual.numberNodes();
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink) {
+            throw new IllegalArgumentException("source and sink must be distinct vertices between 0 and " + (nodes - 1));
+        }
+
+        height = new int[nodes];
+        excess = new long[nodes];
+        current = new int[nodes];
+        activeFirst = new int[2 * nodes + 1];
+        activeNext = new int[nodes];
+        allFirst = new int[2 * nodes + 1];
+        allNext = new int[nodes];
+        allPrev = new int[nodes];
+        queue = new int[nodes];
+
+        // Saturate all arcs leaving the source
+        for (int i = residual.first(source); i < residual.first(source + 1); i++) {
+            int a = residual.arc(i);
+            int delta = residual.residualCapacity(a);
+            if (delta > 0) {
+                residual.push(a, delta);
+                excess[source] -= delta;
+                excess[residual.head(a)] += delta;
+            }
+        }
+
+        // Phase one: move excess towards the sink, vertices at height V or above are cut off from it
+        discharge(sink, source, true);
+
+        // A last global relabel separates the vertices which can still reach the sink
+        globalRelabel(sink, source, true);
+        sourceSide = new BitSet(nodes);
+        for (int v = 0; v < nodes; v++) {
+            if (height[v] >= nodes) {
+                sourceSide.set(v);
+            }
+        }
+    }
+
+
+    /**
+     * @return value of the maximum flow, which is the excess collected at the sink
+     */
+    public int value() {
+        return (int) excess[sink];
+    }
+
+    /**
+     * Is vertex v on the source side of the minimum cut, i.e. unable to reach the sink in the residual network?
+     * @param v vertex number
+     * @return <tt>true</tt> if v is on the source side, and <tt>false</tt> if it is on the sink side
+     */
+    public boolean inCut(int v) {
+        return sourceSide.get(v);
+    }
+
+    /**
+     * Phase two: turns the preflow into a flow by returning all excess to the source.
+     * Does nothing if the flow has already been computed.
+     */
+    public void toFlow() {
+        if (isFlow) {
+            return;
+        }
+        discharge(source, sink, false);
+        isFlow = true;
+    }
+
+
+    /**
+     * Determine the maximum flow which can be send from source to sink
+     * @param G directed graph
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @return maximum flow, can be 0 if there is no path from source to sink at all
+     */
+    public static int maxFlow(final Digraph G, final int source, final int sink) {
+        return maxFlow(new ResidualNetwork(G), source, sink, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * Find a valid routing for a given flow to transport, like {@link FordFulkerson#fordFulkerson(Digraph, int, int, int)}
+     * @param G directed graph
+     * @param source number of source vertex which has demand excess
+     * @param sink number of sink vertex which has demand demand
+     * @param demand flow to transport from source to sink
+     * @return residual graph modified by the algorithm
+     * @throws java.lang.IllegalArgumentException if all paths in G from source to sink do not offer enough capacity to send demand flow
+     */
+    public static Digraph maxFlow(final Digraph G, final int source, final int sink, final int demand) {
+        ResidualNetwork residual = new ResidualNetwork(G);
+        int curFlow = maxFlow(residual, source, sink, demand);
+
+        if (curFlow < demand) {
+            throw new IllegalArgumentException("Not enough capacity to send " + demand + " flow from source to sink");
+        }
+
+        return residual.toDigraph();
+    }
+
+
+    /**
+     * Computes a maximum flow in the residual network and reduces it to limit if it is larger
+     * @param residual residual network, modified by the algorithm
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param limit maximum flow to send, Integer.MAX_VALUE for a maximum flow
+     * @return flow sent from source to sink
+     */
+    public static int maxFlow(final ResidualNetwork residual, final int source, final int sink, final int limit) {
+        int nodes = residual.numberNodes();
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink) {
+            return 0;
+        }
+
+        PushRelabel pushRelabel = new PushRelabel(residual, source, sink);
+        pushRelabel.toFlow();
+        int curFlow = pushRelabel.value();
+        if (curFlow > limit) {
+            // Send the surplus back from the sink to the source
+            curFlow -= Dinic.maxFlow(residual, sink, source, curFlow - limit);
+        }
+        return curFlow;
+    }
+
+
+    // discharges active vertices in highest-label order until no excess can be moved towards target any more
+    private void discharge(int target, int fixed, boolean phaseOne) {
+        globalRelabel(target, fixed, phaseOne);
+
+        long threshold = (long) ALPHA * nodes + residual.numberArcs() / 2;
+        while (maxActive >= 0) {
+            int v = activeFirst[maxActive];
+            if (-1 == v) {
+                maxActive--;
+                continue;
+            }
+            activeFirst[maxActive] = activeNext[v];
+
+            int h = height[v];
+            while (excess[v] > 0 && height[v] == h) {
+                if (!push(v)) {
+                    relabel(v, phaseOne);
+                    if (phaseOne && height[v] >= nodes) {
+                        break;  // v cannot reach the sink any more
+                    }
+                }
+            }
+            if (excess[v] > 0 && height[v] != h && (!phaseOne || height[v] < nodes)) {
+                activate(v);
+            }
+
+            if (work > threshold) {
+                globalRelabel(target, fixed, phaseOne);
+            }
+        }
+    }
+
+    // pushes excess of v along admissible arcs starting at the current arc, returns false if none is left
+    private boolean push(int v) {
+        for (; current[v] < residual.first(v + 1); current[v]++) {
+            int a = residual.arc(current[v]);
+            int w = residual.head(a);
+            int capacity = residual.residualCapacity(a);
+            if (capacity > 0 && height[v] == height[w] + 1) {
+                int delta = (int) Math.min(excess[v], capacity);
+                residual.push(a, delta);
+                excess[v] -= delta;
+                if (0 == excess[w] && w != source && w != sink) {
+                    excess[w] += delta;
+                    activate(w);
+                } else {
+                    excess[w] += delta;
+                }
+                if (0 == excess[v]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // lifts v just above its lowest residual neighbour, or applies the gap heuristic if v leaves its level empty
+    private void relabel(int v, boolean phaseOne) {
+        int h = height[v];
+        int newHeight = 2 * nodes;
+        for (int i = residual.first(v); i < residual.first(v + 1); i++) {
+            int a = residual.arc(i);
+            if (residual.residualCapacity(a) > 0) {
+                newHeight = Math.min(newHeight, height[residual.head(a)] + 1);
+            }
+        }
+        work += residual.first(v + 1) - residual.first(v) + 12;
+        current[v] = residual.first(v);
+
+        unlink(v);
+        if (phaseOne && -1 == allFirst[h]) {
+            // Gap: no vertex above h can reach the sink any more
+            for (int g = h + 1; g <= maxHeight; g++) {
+                for (int u = allFirst[g]; -1 != u; u = allNext[u]) {
+                    height[u] = nodes;
+                }
+                allFirst[g] = -1;
+                activeFirst[g] = -1;
+            }
+            height[v] = nodes;
+            maxHeight = h - 1;
+            maxActive = Math.min(maxActive, h - 1);
+            return;
+        }
+
+        height[v] = newHeight;
+        if (!phaseOne || newHeight < nodes) {
+            link(v);
+        }
+    }
+
+    // recomputes exact distances to target by breadth first search along reverse residual arcs
+    private void globalRelabel(int target, int fixed, boolean phaseOne) {
+        work = 0;
+        int unreached = phaseOne ? nodes : 2 * nodes;
+        Arrays.fill(height, unreached);
+        Arrays.fill(activeFirst, -1);
+        Arrays.fill(allFirst, -1);
+        maxActive = -1;
+        maxHeight = 0;
+
+        int head = 0;
+        int tail = 0;
+        height[target] = 0;
+        queue[tail++] = target;
+        while (head < tail) {
+            int w = queue[head++];
+            for (int i = residual.first(w); i < residual.first(w + 1); i++) {
+                int a = residual.arc(i);
+                int v = residual.head(a);
+                if (residual.residualCapacity(a ^ 1) > 0 && unreached == height[v] && v != fixed) {
+                    height[v] = height[w] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        height[fixed] = phaseOne ? nodes : 2 * nodes;
+
+        for (int v = 0; v < nodes; v++) {
+            current[v] = residual.first(v);
+            if (v == source || v == sink || height[v] >= unreached) {
+                continue;
+            }
+            link(v);
+            if (excess[v] > 0) {
+                activate(v);
+            }
+        }
+    }
+
+    private void activate(int v) {
+        int h = height[v];
+        activeNext[v] = activeFirst[h];
+        activeFirst[h] = v;
+        maxActive = Math.max(maxActive, h);
+    }
+
+    private void link(int v) {
+        int h = height[v];
+        allPrev[v] = -1;
+        allNext[v] = allFirst[h];
+        if (-1 != allFirst[h]) {
+            allPrev[allFirst[h]] = v;
+        }
+        allFirst[h] = v;
+        maxHeight = Math.max(maxHeight, h);
+    }
+
+    private void unlink(int v) {
+        int h = height[v];
+        if (-1 != allPrev[v]) {
+            allNext[allPrev[v]] = allNext[v];
+        } else {
+            allFirst[h] = allNext[v];
+        }
+        if (-1 != allNext[v]) {
+            allPrev[allNext[v]] = allPrev[v];
+        }
+    }
+}
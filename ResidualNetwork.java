@@ -0,0 +1,246 @@
+/**
+ * Residual network whose arcs live in primitive arrays. Every edge of the original digraph becomes
+ * the forward arc 2k, and its residual (reverse) arc is stored right next to it at index 2k + 1,
+ * so the reverse of arc a is simply a ^ 1. Augmenting along an arc is a write to two neighbouring array slots.
+ * The arrays are kept either on the heap or off-heap, see {@link IntArray}. Off-heap, the network occupies
+ * 24 bytes per edge outside of the heap and adds nothing for the garbage collector to scan.
+ * The topology and costs never change after construction. Only the residual capacities hold the
+ * state of a solve, so {@link #withoutFlow()} derives further networks which share everything else, and
+ * {@link #reset()} returns a network to zero flow. Networks sharing a topology can be solved concurrently.
+ * A network whose capacities are changed by {@link #setCapacity(int, int)} copies them first.
+ */
+public class ResidualNetwork {
+
+    /** Most edges a network can hold, arcs are numbered by int **/
+    public static final int MAX_EDGES = Integer.MAX_VALUE / 2;
+
+    // Topology, shared by all networks derived with withoutFlow()
+    private final int numberNodes;      // vertices are numbered 0 .. numberNodes - 1
+    private final IntArray first;       // first[v] = position in arcs of the first arc leaving v
+    private final IntArray arcs;        // arcs[first[v]] .. arcs[first[v + 1] - 1] = arcs leaving v
+    private final IntArray head;        // head[a] = vertex arc a points to
+    private final IntArray costs;       // costs[a] = costs per unit of flow, costs[a ^ 1] = -costs[a]
+    private IntArray capacity;          // capacity[a] = capacity of the original edge, 0 for reverse arcs
+    private boolean ownCapacity;        // whether capacity is used by this network only, guarded by this
+
+    // Flow state, owned by this network
+    private final IntArray residual;    // residual[a] = capacity remaining on arc a
+
+    /**
+     * Creates the residual network of G with zero flow on every edge.
+     * @param G digraph, vertex numbers must not be negative
+     */
+    public ResidualNetwork(Digraph G) {
+        this(G.compact());
+    }
+
+    /**
+     * Creates the residual network of G with zero flow on every edge, stored on the heap.
+     * @param G compact digraph
+     */
+    public ResidualNetwork(CompactDigraph G) {
+        this(G, false);
+    }
+
+    /**
+     * Creates the residual network of G with zero flow on every edge.
+     * @param G compact digraph
+     * @param offHeap whether the arcs are stored in direct buffers outside of the heap
+     * @throws IllegalArgumentException if G has more than {@link #MAX_EDGES} edges
+     */
+    public ResidualNetwork(CompactDigraph G, boolean offHeap) {
+        if (G.numberEdges() > MAX_EDGES) {
+            throw new IllegalArgumentException("at most " + MAX_EDGES + " edges supported, got " + G.numberEdges());
+        }
+        numberNodes = G.numberNodes();
+        int numberArcs = 2 * G.numberEdges();
+        first = new IntArray(numberNodes + 1, offHeap);
+        arcs = new IntArray(numberArcs, offHeap);
+        head = new IntArray(numberArcs, offHeap);
+        capacity = new IntArray(numberArcs, offHeap);
+        costs = new IntArray(numberArcs, offHeap);
+        residual = new IntArray(numberArcs, offHeap);
+        ownCapacity = true;
+
+        // Pair the edges: forward arc at 2k, reverse arc at 2k + 1
+        int[] next = new int[numberNodes + 1];
+        for (int v = 0; v < numberNodes; v++) {
+            for (int e = G.first(v); e < G.first(v + 1); e++) {
+                int w = G.to(e);
+                head.set(2 * e, w);
+                head.set(2 * e + 1, v);
+                capacity.set(2 * e, G.capacity(e));
+                residual.set(2 * e, G.capacity(e));
+                costs.set(2 * e, G.costs(e));
+                costs.set(2 * e + 1, -G.costs(e));
+
+                // Count the arcs leaving each vertex
+                next[v + 1]++;
+                next[w + 1]++;
+            }
+        }
+        for (int v = 0; v < numberNodes; v++) {
+            next[v + 1] += next[v];
+            first.set(v + 1, next[v + 1]);
+        }
+
+        // Group the arcs by their tail, which is the head of the paired arc
+        for (int a = 0; a < numberArcs; a++) {
+            arcs.set(next[head.get(a ^ 1)]++, a);
+        }
+    }
+
+    // shares the topology of network, with zero flow. The caller holds the lock of network.
+    private ResidualNetwork(ResidualNetwork network) {
+        numberNodes = network.numberNodes;
+        first = network.first;
+        arcs = network.arcs;
+        head = network.head;
+        capacity = network.capacity;
+        costs = network.costs;
+        residual = new IntArray(network.residual.length(), network.residual.isOffHeap());
+        residual.copyFrom(capacity);
+        network.ownCapacity = false;
+    }
+
+    /**
+     * Creates a network over the same topology with zero flow on every edge. Only the residual capacities are
+     * allocated, 4 bytes per arc, all other arrays are shared. The new network is independent of this one,
+     * so both can be solved at the same time from different threads. This method may run while another thread
+     * changes capacities of this network, as both lock this network while they touch the shared capacities.
+     * @return network with the same topology and zero flow
+     */
+    public synchronized ResidualNetwork withoutFlow() {
+        return new ResidualNetwork(this);
+    }
+
+
+    /** Getters **/
+    public int numberNodes() {
+        return numberNodes;
+    }
+
+    public int numberArcs() {
+        return head.length();
+    }
+
+    /**
+     * @param v vertex number
+     * @return position of the first arc leaving v. The arcs of v end at first(v + 1), exclusive.
+     */
+    public int first(int v) {
+        return first.get(v);
+    }
+
+    /**
+     * @param i position between first(v) and first(v + 1) - 1
+     * @return number of the arc stored at position i
+     */
+    public int arc(int i) {
+        return arcs.get(i);
+    }
+
+    public int head(int a) {
+        return head.get(a);
+    }
+
+    public int tail(int a) {
+        return head.get(a ^ 1);
+    }
+
+    public int capacity(int a) {
+        return capacity.get(a);
+    }
+
+    public int costs(int a) {
+        return costs.get(a);
+    }
+
+    public int residualCapacity(int a) {
+        return residual.get(a);
+    }
+
+    /**
+     * @param a arc number
+     * @return flow on arc a. Negative on a reverse arc whose forward arc carries flow.
+     */
+    public int flow(int a) {
+        return capacity.get(a) - residual.get(a);
+    }
+
+    public boolean isResidualArc(int a) {
+        return 1 == (a & 1);
+    }
+
+
+    /** Modifying methods **/
+
+    /**
+     * Changes the capacity of a forward arc. If the arc carries more flow than the new capacity, the flow on it is
+     * cut down, which leaves the removed amount as excess at the tail and as deficit at the head of the arc.
+     * The first change copies the capacities if they are shared with other networks. The copy and the write
+     * lock this network, so {@link #withoutFlow()} never sees a half-done change.
+     * @param a number of a forward arc, i.e. twice the number of the edge in the {@link CompactDigraph}
+     * @param capacity new capacity
+     * @return flow removed from the arc
+     * @throws IllegalArgumentException if a is a reverse arc or capacity is negative
+     */
+    public int setCapacity(int a, int capacity) {
+        if (isResidualArc(a) || capacity < 0) {
+            throw new IllegalArgumentException("capacity of forward arcs only can be set to a non-negative value");
+        }
+
+        int flow = flow(a);
+        int removed = Math.max(0, flow - capacity);
+        synchronized (this) {
+            if (!ownCapacity) {
+                IntArray copy = new IntArray(this.capacity.length(), this.capacity.isOffHeap());
+                copy.copyFrom(this.capacity);
+                this.capacity = copy;
+                ownCapacity = true;
+            }
+            this.capacity.set(a, capacity);
+        }
+        residual.set(a, capacity - flow + removed);
+        residual.add(a ^ 1, -removed);
+        return removed;
+    }
+
+    /**
+     * Removes all flow, restoring the residual capacities with a bulk copy of the capacities in O(E)
+     */
+    public void reset() {
+        residual.copyFrom(capacity);
+    }
+
+    /**
+     * Sends flow along arc a and frees the same amount of capacity on its reverse arc
+     * @param a arc number
+     * @param flow amount of flow, must not exceed the residual capacity of a
+     */
+    public void push(int a, int flow) {
+        residual.add(a, -flow);
+        residual.add(a ^ 1, flow);
+    }
+
+
+    /**
+     * Converts the network into a residual {@link Digraph} as created by {@link Digraph#createResidual()},
+     * with the current flow stored on the forward edges and as capacity of the inverse edges.
+     * @return residual digraph with linked inverse edges
+     */
+    public Digraph toDigraph() {
+        Digraph digraph = new Digraph();
+        for (int a = 0; a < numberArcs(); a += 2) {
+            DirectedEdge e = new DirectedEdge(tail(a), head(a), capacity(a), costs(a));
+            e.flow(flow(a));
+            DirectedEdge i = new DirectedEdge(head(a), tail(a), flow(a), costs(a ^ 1));
+            i.setResidualEdge(true);
+            i.inverseEdge(e);
+            e.inverseEdge(i);
+            digraph.addEdge(e);
+            digraph.addEdge(i);
+        }
+        return digraph;
+    }
+}
@@ -0,0 +1,36 @@
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Thread-safe pool of {@link ResidualNetwork}s sharing one topology. Solves acquire a network with zero flow
+ * and release it when done, so repeated solves neither rebuild the topology nor allocate residual capacities.
+ */
+public class ResidualNetworkPool {
+
+    private final ResidualNetwork prototype;
+    private final ConcurrentLinkedDeque<ResidualNetwork> idle = new ConcurrentLinkedDeque<>();
+
+    /**
+     * @param prototype network whose topology is shared, it is not handed out itself
+     */
+    public ResidualNetworkPool(ResidualNetwork prototype) {
+        this.prototype = prototype;
+    }
+
+
+    /**
+     * @return network with zero flow, either a released one or a new one
+     */
+    public ResidualNetwork acquire() {
+        ResidualNetwork network = idle.pollFirst();
+        return (null == network) ? prototype.withoutFlow() : network;
+    }
+
+    /**
+     * Resets the network to zero flow and returns it to the pool
+     * @param network network acquired from this pool, must not be used afterwards
+     */
+    public void release(ResidualNetwork network) {
+        network.reset();
+        idle.addFirst(network);
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Receives counters and timings from the solvers, e.g. to feed a metrics pipeline or to spot pathological instances.
+ * Events are reported once per search, augmentation or phase, never per arc, so listening is cheap.
+ * All methods do nothing by default. Solvers use {@link #NONE} if no listener is given, whose empty calls
+ * the JIT compiler inlines and removes.
+ */
+public interface SolverListener {
+
+    /** Listener which ignores all events **/
+    SolverListener NONE = new SolverListener() {
+    };
+
+    /**
+     * A breadth first search for an augmenting path has finished
+     * @param scanned number of vertices whose arcs were scanned
+     */
+    default void searched(int scanned) {
+    }
+
+    /**
+     * Flow has been sent along an augmenting path
+     * @param flow amount of flow
+     * @param arcs number of arcs on the path
+     */
+    default void augmented(int flow, int arcs) {
+    }
+
+    /**
+     * A shortest path computation has finished
+     * @param relaxations number of arcs whose relaxation improved a distance
+     */
+    default void relaxed(long relaxations) {
+    }
+
+    /**
+     * A search for a negative cycle has finished
+     * @param found whether a negative cycle was found
+     */
+    default void negativeCycleSearched(boolean found) {
+    }
+
+    /**
+     * Flow has been sent around a negative cycle, which ends a round of cycle cancelling
+     * @param flow amount of flow
+     * @param arcs number of arcs on the cycle
+     */
+    default void cycleCancelled(int flow, int arcs) {
+    }
+
+    /**
+     * A phase of a solver has finished
+     * @param phase name of the phase
+     * @param nanos wall time the phase took in nanoseconds
+     */
+    default void phaseFinished(String phase, long nanos) {
+    }
+}
@@ -0,0 +1,108 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link SolverListener} which sums up all events of the solves it listens to. Not thread-safe,
+ * use one instance per thread.
+ */
+public class SolverStats implements SolverListener {
+
+    private long searches;
+    private long scanned;
+    private long augmentations;
+    private long augmentedFlow;
+    private long augmentedArcs;
+    private long relaxations;
+    private long negativeCycleSearches;
+    private long cancelRounds;
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+    @Override
+    public void searched(int scanned) {
+        searches++;
+        this.scanned += scanned;
+    }
+
+    @Override
+    public void augmented(int flow, int arcs) {
+        augmentations++;
+        augmentedFlow += flow;
+        augmentedArcs += arcs;
+    }
+
+    @Override
+    public void relaxed(long relaxations) {
+        this.relaxations += relaxations;
+    }
+
+    @Override
+    public void negativeCycleSearched(boolean found) {
+        negativeCycleSearches++;
+    }
+
+    @Override
+    public void cycleCancelled(int flow, int arcs) {
+        cancelRounds++;
+    }
+
+    @Override
+    public void phaseFinished(String phase, long nanos) {
+        phaseNanos.merge(phase, nanos, Long::sum);
+    }
+
+
+    /** Getters **/
+    public long searches() {
+        return searches;
+    }
+
+    /**
+     * @return vertices scanned by all breadth first searches
+     */
+    public long scanned() {
+        return scanned;
+    }
+
+    public long augmentations() {
+        return augmentations;
+    }
+
+    public long augmentedFlow() {
+        return augmentedFlow;
+    }
+
+    /**
+     * @return total length of all augmenting paths
+     */
+    public long augmentedArcs() {
+        return augmentedArcs;
+    }
+
+    public long relaxations() {
+        return relaxations;
+    }
+
+    public long negativeCycleSearches() {
+        return negativeCycleSearches;
+    }
+
+    public long cancelRounds() {
+        return cancelRounds;
+    }
+
+    /**
+     * @param phase name of the phase
+     * @return total wall time spent in the phase in nanoseconds
+     */
+    public long phaseNanos(String phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    @Override
+    public String toString() {
+        return "searches=" + searches + ", scanned=" + scanned + ", augmentations=" + augmentations
+                + ", augmentedFlow=" + augmentedFlow + ", augmentedArcs=" + augmentedArcs
+                + ", relaxations=" + relaxations + ", negativeCycleSearches=" + negativeCycleSearches
+                + ", cancelRounds=" + cancelRounds + ", phaseNanos=" + phaseNanos;
+    }
+}
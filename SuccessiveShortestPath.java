@@ -0,0 +1,336 @@
+import java.util.Arrays;
+
+/**
+ * Successive shortest path algorithm for min-cost-flow problems.
+ * Repeatedly sends as much flow as possible along a cheapest path from source to sink in the residual network.
+ * The paths are found by Dijkstra's algorithm on reduced costs c(u, v) + pi(u) - pi(v), which are non-negative
+ * thanks to the node potentials pi. A single Bellman-Ford run initializes the potentials if some costs are negative.
+ * An instance keeps the residual network and the potentials between solves, so the demand can be raised or lowered
+ * step by step: only the difference is sent along cheapest paths from source to sink, or back from sink to source.
+ */
+public class SuccessiveShortestPath {
+
+    private static final long INFINITY = Long.MAX_VALUE / 4;
+
+    private final ResidualNetwork residual;
+    private final int source;
+    private final int sink;
+    private final long[] potential;     // reduced costs are costs(a) + potential[tail] - potential[head]
+    private final long[] distance;
+    private final int[] parentArc;      // parentArc[v] = last arc on the cheapest path to v
+    private final IndexMinHeap heap;
+    private int flow;
+    private long costs;
+
+    /**
+     * Prepares the potentials for sending flow from source to sink, without sending any flow yet
+     * @param residual residual network without flow, or carrying a min-cost flow from source to sink as left by
+     *    another min-cost-flow algorithm. Modified by this object.
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @throws IllegalArgumentException if source or sink are not vertices of the network or coincide,
+     *    or if a negative cost cycle is reachable from source or sink
+     */
+    public SuccessiveShortestPath(ResidualNetwork residual, int source, int sink) {
+        int nodes = residual.numberNodes();
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink) {
+            throw new IllegalArgumentException("source and sink must be distinct vertices between 0 and " + (nodes - 1));
+        }
+
+        this.residual = residual;
+        this.source = source;
+        this.sink = sink;
+        potential = initialPotentials(residual, source, sink);
+        distance = new long[nodes];
+        parentArc = new int[nodes];
+        heap = new IndexMinHeap(nodes);
+
+        // Take over the flow already in the network
+        for (int i = residual.first(source); i < residual.first(source + 1); i++) {
+            flow += residual.flow(residual.arc(i));
+        }
+        for (int a = 0; a < residual.numberArcs(); a += 2) {
+            costs += (long) residual.flow(a) * residual.costs(a);
+        }
+    }
+
+
+    /**
+     * Determine the minimal costs to send demand flow from source to sink
+     * @param digraph directed graph, which can also contain several edges sharing the same source and sink vertex
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param demand flow which to send through the network
+     * @return minimal costs to send demand through the network
+     * @throws IllegalArgumentException if there is not enough capacity to send demand flow from source to sink,
+     *    or if a negative cost cycle is reachable from the source
+     */
+    public static int minCostFlow(final Digraph digraph, final int source, final int sink, final int demand) {
+        return (int) minCostFlow(new ResidualNetwork(digraph), source, sink, demand);
+    }
+
+
+    /**
+     * Sends demand flow from source to sink along successive cheapest paths
+     * @param residual residual network, modified by the algorithm
+     * @param source number of source vertex
+     * @param sink number of sink vertex
+     * @param demand flow which to send through the network
+     * @return costs of the sent flow
+     * @throws IllegalArgumentException if there is not enough capacity to send demand flow from source to sink,
+     *    or if a negative cost cycle is reachable from the source
+     */
+    public static long minCostFlow(final ResidualNetwork residual, final int source, final int sink, final int demand) {
+        int nodes = residual.numberNodes();
+        if (demand <= 0) {
+            return 0;
+        }
+        if (source < 0 || source >= nodes || sink < 0 || sink >= nodes || source == sink) {
+            throw new IllegalArgumentException("Not enough capacity to send " + demand + " flow from source to sink");
+        }
+
+        return new SuccessiveShortestPath(residual, source, sink).setDemand(demand);
+    }
+
+
+    /** Getters **/
+    public int flow() {
+        return flow;
+    }
+
+    public long costs() {
+        return costs;
+    }
+
+    public ResidualNetwork residual() {
+        return residual;
+    }
+
+
+    /**
+     * Changes the flow from source to sink to demand at minimal costs. A higher demand sends the difference along
+     * cheapest paths from source to sink, a lower one sends it back along cheapest paths from sink to source.
+     * @param demand flow which to send through the network
+     * @return costs of the flow
+     * @throws IllegalArgumentException if demand is negative, or if there is not enough capacity to send demand
+     *    flow from source to sink. The largest flow below demand is kept then, at minimal costs.
+     */
+    public long setDemand(int demand) {
+        if (demand < 0) {
+            throw new IllegalArgumentException("demand must not be negative");
+        }
+
+        while (flow < demand) {
+            if (!shortestPath(source, sink)) {
+                throw new IllegalArgumentException("Not enough capacity to send " + demand + " flow from source to sink");
+            }
+            int pathFlow = augment(source, sink, demand - flow);
+            flow += pathFlow;
+        }
+        while (flow > demand) {
+            if (!shortestPath(sink, source)) {
+                throw new IllegalStateException("flow of " + flow + " cannot be returned to the source");
+            }
+            int pathFlow = augment(sink, source, flow - demand);
+            flow -= pathFlow;
+        }
+        return costs;
+    }
+
+    // Dijkstra on reduced costs from from, updates the potentials. Returns whether to is reachable.
+    private boolean shortestPath(int from, int to) {
+        int nodes = residual.numberNodes();
+        Arrays.fill(distance, INFINITY);
+        distance[from] = 0;
+        parentArc[from] = -1;
+        heap.insert(from, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.removeMin();
+            if (u == to) {
+                break;  // Vertices further away keep their potential difference to the target, see below
+            }
+
+            for (int i = residual.first(u); i < residual.first(u + 1); i++) {
+                int a = residual.arc(i);
+                if (residual.residualCapacity(a) <= 0) {
+                    continue;
+                }
+                int v = residual.head(a);
+                long d = distance[u] + residual.costs(a) + potential[u] - potential[v];
+                if (d < distance[v]) {
+                    distance[v] = d;
+                    parentArc[v] = a;
+                    heap.insertOrDecrease(v, d);
+                }
+            }
+        }
+        heap.clear();
+
+        if (INFINITY == distance[to]) {
+            return false;
+        }
+
+        // Capping the distances at the target's keeps all reduced costs non-negative
+        for (int v = 0; v < nodes; v++) {
+            potential[v] += Math.min(distance[v], distance[to]);
+        }
+        return true;
+    }
+
+    // sends up to limit flow along the path found by the last search, returns the flow sent
+    private int augment(int from, int to, int limit) {
+        // Find the bottleneck along the path and augment
+        int pathFlow = limit;
+        for (int v = to; v != from; v = residual.tail(parentArc[v])) {
+            pathFlow = Math.min(pathFlow, residual.residualCapacity(parentArc[v]));
+        }
+        for (int v = to; v != from; v = residual.tail(parentArc[v])) {
+            residual.push(parentArc[v], pathFlow);
+            costs += (long) pathFlow * residual.costs(parentArc[v]);
+        }
+        return pathFlow;
+    }
+
+
+    // shortest path distances from source or sink, whichever is closer, by Bellman-Ford, or all zero if there are
+    // no negative costs. Paths back from the sink need valid potentials once the network carries flow.
+    private static long[] initialPotentials(ResidualNetwork residual, int source, int sink) {
+        int nodes = residual.numberNodes();
+        long[] potential = new long[nodes];
+
+        boolean negativeCosts = false;
+        for (int a = 0; a < residual.numberArcs() && !negativeCosts; a++) {
+            negativeCosts = residual.residualCapacity(a) > 0 && residual.costs(a) < 0;
+        }
+        if (!negativeCosts) {
+            return potential;
+        }
+
+        // Queue based Bellman-Ford, a shortest path with V or more arcs runs through a negative cycle
+        Arrays.fill(potential, INFINITY);
+        int[] queue = new int[nodes];
+        boolean[] onQueue = new boolean[nodes];
+        int[] length = new int[nodes];         // length[v] = number of arcs on the current shortest path to v
+        int head = 0;
+        int size = 0;
+        potential[source] = 0;
+        potential[sink] = 0;
+        queue[size++] = source;
+        queue[size++] = sink;
+        onQueue[source] = true;
+        onQueue[sink] = true;
+        while (size > 0) {
+            int u = queue[head];
+            head = (head + 1) % nodes;
+            size--;
+            onQueue[u] = false;
+
+            for (int i = residual.first(u); i < residual.first(u + 1); i++) {
+                int a = residual.arc(i);
+                int v = residual.head(a);
+                if (residual.residualCapacity(a) > 0 && potential[u] + residual.costs(a) < potential[v]) {
+                    potential[v] = potential[u] + residual.costs(a);
+                    length[v] = length[u] + 1;
+                    if (length[v] >= nodes) {
+                        throw new IllegalArgumentException("Negative cost cycle reachable from vertex " + source + " or " + sink);
+                    }
+                    if (!onQueue[v]) {
+                        queue[(head + size++) % nodes] = v;
+                        onQueue[v] = true;
+                    }
+                }
+            }
+        }
+
+        // Unreachable vertices are never scanned by Dijkstra, any potential will do
+        for (int v = 0; v < nodes; v++) {
+            if (INFINITY == potential[v]) {
+                potential[v] = 0;
+            }
+        }
+        return potential;
+    }
+
+
+    // binary min heap of vertices keyed by distance, supporting decrease-key
+    private static class IndexMinHeap {
+        private final int[] heap;       // heap[i] = vertex at heap position i
+        private final int[] position;   // position[v] = heap position of v, -1 if not in the heap
+        private final long[] key;
+        private int size;
+
+        IndexMinHeap(int capacity) {
+            heap = new int[capacity];
+            position = new int[capacity];
+            key = new long[capacity];
+            Arrays.fill(position, -1);
+        }
+
+        boolean isEmpty() {
+            return 0 == size;
+        }
+
+        void insert(int v, long k) {
+            key[v] = k;
+            heap[size] = v;
+            position[v] = size;
+            up(size++);
+        }
+
+        void insertOrDecrease(int v, long k) {
+            if (-1 == position[v]) {
+                insert(v, k);
+            } else {
+                key[v] = k;
+                up(position[v]);
+            }
+        }
+
+        int removeMin() {
+            int min = heap[0];
+            position[min] = -1;
+            if (--size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                down(0);
+            }
+            return min;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                position[heap[i]] = -1;
+            }
+            size = 0;
+        }
+
+        private void up(int i) {
+            int v = heap[i];
+            while (i > 0 && key[heap[(i - 1) / 2]] > key[v]) {
+                heap[i] = heap[(i - 1) / 2];
+                position[heap[i]] = i;
+                i = (i - 1) / 2;
+            }
+            heap[i] = v;
+            position[v] = i;
+        }
+
+        private void down(int i) {
+            int v = heap[i];
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+                    child++;
+                }
+                if (key[heap[child]] >= key[v]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                position[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = v;
+            position[v] = i;
+        }
+    }
+}
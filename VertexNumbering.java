@@ -0,0 +1,99 @@
+import java.util.Arrays;
+
+/**
+ * Dense renumbering of a {@link Digraph} whose vertex numbers are negative or too sparse for {@link Digraph#compact()}.
+ * The vertices are numbered 0 .. n - 1 in ascending order of their original numbers, so the compact digraph takes
+ * memory in proportion to the vertices which exist. Source and sink are translated by {@link #vertex(int)}, and a
+ * flow solved on the compact digraph is written back onto the original edges by {@link #expand(ResidualNetwork)}.
+ */
+public class VertexNumbering {
+
+    private final int[] originalVertex;     // originalVertex[v] = original number of vertex v, ascending
+    private final DirectedEdge[] edges;     // edges[e] = original edge behind edge e of graph
+    private final CompactDigraph graph;
+
+    /**
+     * Renumbers the vertices of G
+     * @param G directed graph with any vertex numbers
+     */
+    public VertexNumbering(Digraph G) {
+        originalVertex = G.nodes().stream().mapToInt(Integer::intValue).sorted().toArray();
+
+        int m = G.numberEdges();
+        DirectedEdge[] unsorted = new DirectedEdge[m];
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] capacity = new int[m];
+        int[] costs = new int[m];
+        int i = 0;
+        for (DirectedEdge e : G.edges()) {
+            unsorted[i] = e;
+            from[i] = vertex(e.from());
+            to[i] = vertex(e.to());
+            capacity[i] = e.capacity();
+            costs[i] = e.costs();
+            i++;
+        }
+        graph = new CompactDigraph(originalVertex.length, from, to, capacity, costs);
+
+        // The compact digraph groups the edges by tail and keeps their order within each group
+        edges = new DirectedEdge[m];
+        int[] next = new int[originalVertex.length];
+        for (int v = 0; v < next.length; v++) {
+            next[v] = graph.first(v);
+        }
+        for (i = 0; i < m; i++) {
+            edges[next[from[i]]++] = unsorted[i];
+        }
+    }
+
+
+    /** Getters **/
+    public CompactDigraph graph() {
+        return graph;
+    }
+
+    public int numberNodes() {
+        return originalVertex.length;
+    }
+
+    /**
+     * @param u original vertex number
+     * @return number of u in the compact digraph, -1 if u is no vertex of the digraph
+     */
+    public int vertex(int u) {
+        int v = Arrays.binarySearch(originalVertex, u);
+        return (v < 0) ? -1 : v;
+    }
+
+    /**
+     * @param v vertex of the compact digraph
+     * @return original number of v
+     */
+    public int originalVertex(int v) {
+        return originalVertex[v];
+    }
+
+    /**
+     * @param e edge of the compact digraph
+     * @return original edge behind e
+     */
+    public DirectedEdge edge(int e) {
+        return edges[e];
+    }
+
+
+    /**
+     * Sets the flow of every original edge to the flow of its edge in the residual network
+     * @param residual residual network of {@link #graph()}
+     * @throws IllegalArgumentException if residual does not belong to the compact digraph
+     */
+    public void expand(ResidualNetwork residual) {
+        if (residual.numberArcs() != 2 * edges.length || residual.numberNodes() != originalVertex.length) {
+            throw new IllegalArgumentException("residual network does not belong to the renumbered digraph");
+        }
+        for (int e = 0; e < edges.length; e++) {
+            edges[e].flow(residual.flow(2 * e));
+        }
+    }
+}
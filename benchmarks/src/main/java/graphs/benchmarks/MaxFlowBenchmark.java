@@ -0,0 +1,49 @@
+package graphs.benchmarks;
+
+import graphs.FordFulkerson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maximum flow by {@link FordFulkerson} on generated networks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaxFlowBenchmark {
+
+    @Param({"random", "grid", "bipartite", "ak"})
+    public String type;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"42"})
+    public long seed;
+
+    private Networks.Instance instance;
+
+    @Setup
+    public void generate() {
+        instance = Networks.generate(type, size, seed);
+    }
+
+    @Benchmark
+    public int fordFulkerson() {
+        return FordFulkerson.fordFulkerson(instance.graph, instance.source, instance.sink);
+    }
+}
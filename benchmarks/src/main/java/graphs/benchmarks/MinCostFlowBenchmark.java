@@ -0,0 +1,49 @@
+package graphs.benchmarks;
+
+import graphs.CycleCancelling;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimum cost flow by {@link CycleCancelling} on generated networks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinCostFlowBenchmark {
+
+    @Param({"netgen", "grid", "random"})
+    public String type;
+
+    @Param({"100", "400"})
+    public int size;
+
+    @Param({"42"})
+    public long seed;
+
+    private Networks.Instance instance;
+
+    @Setup
+    public void generate() {
+        instance = Networks.generate(type, size, seed);
+    }
+
+    @Benchmark
+    public int cycleCancelling() {
+        return CycleCancelling.minCostFlow(instance.graph, instance.source, instance.sink, instance.demand);
+    }
+}
@@ -0,0 +1,210 @@
+package graphs.benchmarks;
+
+import graphs.Digraph;
+import graphs.DirectedEdge;
+import graphs.FordFulkerson;
+
+import java.util.Random;
+
+/**
+ * Seeded generators of benchmark networks. The same seed and size always give the same network.
+ */
+public class Networks {
+
+    /**
+     * Generated network together with the flow problem to solve on it
+     */
+    public static class Instance {
+        public final Digraph graph;
+        public final int source;
+        public final int sink;
+        public final int demand;    // feasible flow for min-cost-flow benchmarks
+
+        Instance(Digraph graph, int source, int sink, int demand) {
+            this.graph = graph;
+            this.source = source;
+            this.sink = sink;
+            this.demand = demand;
+        }
+    }
+
+    private Networks() {
+    }
+
+
+    /**
+     * @param type one of random, grid, bipartite, ak, netgen
+     * @param size number of vertices, roughly
+     * @param seed seed of the random generator
+     * @return generated instance
+     */
+    public static Instance generate(String type, int size, long seed) {
+        switch (type) {
+            case "random":
+                return randomSparse(size, 4, seed);
+            case "grid":
+                return grid((int) Math.max(2, Math.sqrt(size)), seed);
+            case "bipartite":
+                return bipartite(size / 2, 3, seed);
+            case "ak":
+                return ak(Math.max(1, (int) Math.sqrt(2 * size)));
+            case "netgen":
+                return netgen(size, 4, seed);
+            default:
+                throw new IllegalArgumentException("unknown network type " + type);
+        }
+    }
+
+
+    /**
+     * Random sparse network: degree edges leave every vertex towards random vertices, with random capacities
+     * and costs. Vertex 0 is the source and vertex nodes - 1 the sink.
+     */
+    public static Instance randomSparse(int nodes, int degree, long seed) {
+        Random random = new Random(seed);
+        Digraph G = new Digraph();
+        for (int u = 0; u < nodes; u++) {
+            for (int k = 0; k < degree; k++) {
+                int v = random.nextInt(nodes);
+                if (u != v) {
+                    G.addEdge(new DirectedEdge(u, v, 1 + random.nextInt(100), random.nextInt(100)));
+                }
+            }
+        }
+        return new Instance(G, 0, nodes - 1, halfMaxFlow(G, 0, nodes - 1));
+    }
+
+    /**
+     * Road-like grid of width x width vertices, neighbours are connected in both directions. Costs model travel
+     * times, capacities lane counts. The source is the top left corner, the sink the bottom right corner.
+     */
+    public static Instance grid(int width, long seed) {
+        Random random = new Random(seed);
+        Digraph G = new Digraph();
+        for (int row = 0; row < width; row++) {
+            for (int column = 0; column < width; column++) {
+                int u = row * width + column;
+                if (column + 1 < width) {
+                    road(G, random, u, u + 1);
+                }
+                if (row + 1 < width) {
+                    road(G, random, u, u + width);
+                }
+            }
+        }
+        int sink = width * width - 1;
+        return new Instance(G, 0, sink, halfMaxFlow(G, 0, sink));
+    }
+
+    private static void road(Digraph G, Random random, int u, int v) {
+        int lanes = 1 + random.nextInt(4);
+        int time = 10 + random.nextInt(90);
+        G.addEdge(new DirectedEdge(u, v, 100 * lanes, time));
+        G.addEdge(new DirectedEdge(v, u, 100 * lanes, time));
+    }
+
+    /**
+     * Unit capacity bipartite matching network: side vertices on each side, every left vertex is connected to
+     * degree random right vertices. Vertex 2 * side is the source, vertex 2 * side + 1 the sink.
+     */
+    public static Instance bipartite(int side, int degree, long seed) {
+        Random random = new Random(seed);
+        Digraph G = new Digraph();
+        int source = 2 * side;
+        int sink = 2 * side + 1;
+        for (int u = 0; u < side; u++) {
+            G.addEdge(new DirectedEdge(source, u, 1, 0));
+            G.addEdge(new DirectedEdge(side + u, sink, 1, 0));
+            for (int k = 0; k < degree; k++) {
+                G.addEdge(new DirectedEdge(u, side + random.nextInt(side), 1, random.nextInt(100)));
+            }
+        }
+        return new Instance(G, source, sink, halfMaxFlow(G, source, sink));
+    }
+
+    /**
+     * Hard instance in the style of Cherkassky and Goldberg's AK generator. A chain of k vertices leaves the source,
+     * and the i-th vertex of the chain reaches the sink over a path of k - i + 1 unit capacity arcs. A second chain
+     * carries flow which has to be pushed back towards the source. Augmenting path methods need a phase per path
+     * length, push-relabel methods relabel the chains over and over. No randomness involved.
+     */
+    public static Instance ak(int k) {
+        Digraph G = new Digraph();
+        int source = 0;
+        int sink = 1;
+        int next = 2;
+
+        // Chain with staircase of paths towards the sink
+        int previous = source;
+        for (int i = 1; i <= k; i++) {
+            int chain = next++;
+            G.addEdge(new DirectedEdge(previous, chain, k - i + 1, 1));
+            previous = chain;
+
+            int last = chain;
+            for (int j = 0; j < k - i; j++) {
+                int path = next++;
+                G.addEdge(new DirectedEdge(last, path, 1, 1));
+                last = path;
+            }
+            G.addEdge(new DirectedEdge(last, sink, 1, 1));
+        }
+
+        // Chain whose excess must return to the source
+        previous = source;
+        for (int i = 1; i <= k; i++) {
+            int chain = next++;
+            G.addEdge(new DirectedEdge(previous, chain, k, 1));
+            previous = chain;
+        }
+        G.addEdge(new DirectedEdge(previous, sink, 1, 1));
+
+        return new Instance(G, source, sink, halfMaxFlow(G, source, sink));
+    }
+
+    /**
+     * Min-cost-flow network in the style of NETGEN: a random skeleton of source to sink paths guarantees that the
+     * demand is feasible, further random arcs with random capacities and costs make the problem non-trivial.
+     * Vertex 0 is the source and vertex nodes - 1 the sink.
+     */
+    public static Instance netgen(int nodes, int degree, long seed) {
+        Random random = new Random(seed);
+        Digraph G = new Digraph();
+        int source = 0;
+        int sink = nodes - 1;
+        int paths = Math.max(1, nodes / 50);
+        int demand = 0;
+
+        // Skeleton: paths through random vertices with high cost, so the cheap flow has to find other routes
+        for (int p = 0; p < paths; p++) {
+            int capacity = 10 + random.nextInt(90);
+            int u = source;
+            for (int step = 0; step < 5; step++) {
+                int v = 1 + random.nextInt(nodes - 2);
+                if (v != u) {
+                    G.addEdge(new DirectedEdge(u, v, capacity, 100 + random.nextInt(100)));
+                    u = v;
+                }
+            }
+            G.addEdge(new DirectedEdge(u, sink, capacity, 100 + random.nextInt(100)));
+            demand += capacity;
+        }
+
+        // Random arcs, a fraction of them uncapacitated
+        for (int u = 0; u < nodes; u++) {
+            for (int k = 0; k < degree; k++) {
+                int v = random.nextInt(nodes);
+                if (u != v) {
+                    int capacity = random.nextInt(10) == 0 ? demand : 1 + random.nextInt(50);
+                    G.addEdge(new DirectedEdge(u, v, capacity, 1 + random.nextInt(100)));
+                }
+            }
+        }
+        return new Instance(G, source, sink, demand);
+    }
+
+    // half of the maximum flow, a demand which leaves the min-cost-flow algorithms a choice of routes
+    private static int halfMaxFlow(Digraph G, int source, int sink) {
+        return Math.max(1, FordFulkerson.fordFulkerson(G, source, sink) / 2);
+    }
+}
@@ -0,0 +1,62 @@
+package graphs.benchmarks;
+
+import graphs.ParallelPushRelabel;
+import graphs.PushRelabel;
+import graphs.ResidualNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link ParallelPushRelabel} with the number of threads on generated networks, next to the serial
+ * {@link PushRelabel}. Every solve starts from a zero flow network sharing the topology built once in the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelPushRelabelBenchmark {
+
+    @Param({"random", "grid"})
+    public String type;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"42"})
+    public long seed;
+
+    private Networks.Instance instance;
+    private ResidualNetwork network;
+
+    @Setup
+    public void generate() {
+        instance = Networks.generate(type, size, seed);
+        network = new ResidualNetwork(instance.graph);
+    }
+
+    @Benchmark
+    public int parallelPushRelabel() {
+        return new ParallelPushRelabel(network.withoutFlow(), instance.source, instance.sink, threads).value();
+    }
+
+    @Benchmark
+    public int pushRelabel() {
+        return new PushRelabel(network.withoutFlow(), instance.source, instance.sink).value();
+    }
+}
@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AugmentingPathSearchTest {
+
+    @Test
+    void pathsAreShortestAndUseArcsWithCapacityLeft() {
+        Random random = new Random(111);
+        Digraph G = TestNetworks.random(random, 30, 120, 5, false);
+        ResidualNetwork residual = new ResidualNetwork(G);
+        AugmentingPathSearch search = new AugmentingPathSearch(residual);
+
+        // One search object serves every query of the solve
+        int flow = 0;
+        while (search.search(0, 29)) {
+            int[] path = search.path(29);
+            assertEquals(shortestPathLength(residual, 0, 29), path.length);
+            int v = 0;
+            for (int a : path) {
+                assertEquals(v, residual.tail(a));
+                assertTrue(residual.residualCapacity(a) > 0);
+                v = residual.head(a);
+            }
+            assertEquals(29, v);
+
+            int bottleneck = search.bottleneck(29, Integer.MAX_VALUE);
+            assertEquals(Math.min(2, bottleneck), search.bottleneck(29, 2));
+            search.augment(29, bottleneck);
+            flow += bottleneck;
+        }
+        assertFalse(search.reached(29));
+        assertEquals(Dinic.maxFlow(new ResidualNetwork(G), 0, 29, Integer.MAX_VALUE), flow);
+        MaxFlowTest.assertFlow(residual, 0, 29, flow);
+    }
+
+    @Test
+    void missingOrEqualEndsFindNothing() {
+        ResidualNetwork residual = new ResidualNetwork(TestNetworks.random(new Random(112), 5, 20, 5, false));
+        AugmentingPathSearch search = new AugmentingPathSearch(residual);
+        assertFalse(search.search(2, 2));
+        assertFalse(search.search(-1, 4));
+        assertFalse(search.search(0, -1));
+        assertFalse(search.search(0, 5));
+        assertFalse(search.search(5, 0));
+    }
+
+    // number of arcs on a shortest path from source to target along arcs with capacity left
+    private static int shortestPathLength(ResidualNetwork residual, int source, int target) {
+        int[] distance = new int[residual.numberNodes()];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[residual.numberNodes()];
+        int head = 0;
+        int tail = 0;
+        distance[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int i = residual.first(u); i < residual.first(u + 1); i++) {
+                int a = residual.arc(i);
+                if (residual.residualCapacity(a) > 0 && -1 == distance[residual.head(a)]) {
+                    distance[residual.head(a)] = distance[u] + 1;
+                    queue[tail++] = residual.head(a);
+                }
+            }
+        }
+        return distance[target];
+    }
+}
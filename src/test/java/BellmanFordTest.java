@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BellmanFordTest {
+
+    @Test
+    void distancesMatchPlainRelaxation() {
+        Random random = new Random(101);
+        for (int round = 0; round < 200; round++) {
+            int nodes = 2 + random.nextInt(25);
+            Digraph G = TestNetworks.random(random, nodes, random.nextInt(5 * nodes), 5, true);
+            BellmanFord bellmanFord = new BellmanFord(G, 0);
+            assertFalse(bellmanFord.hasNegativeCycle());
+
+            long[] expected = distances(G, nodes, 0);
+            for (int v = 0; v < nodes; v++) {
+                String message = "round " + round + " vertex " + v;
+                assertEquals(Long.MAX_VALUE != expected[v], bellmanFord.hasPathTo(v), message);
+                if (bellmanFord.hasPathTo(v)) {
+                    assertEquals(expected[v], (long) bellmanFord.distTo(v), message);
+                    long length = 0;
+                    for (DirectedEdge e : bellmanFord.pathTo(v)) {
+                        length += e.costs();
+                    }
+                    assertEquals(expected[v], length, message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void negativeCyclesAreClosed() {
+        Random random = new Random(102);
+        int found = 0;
+        for (int round = 0; round < 200; round++) {
+            int nodes = 2 + random.nextInt(15);
+            Digraph G = new Digraph();
+            for (int i = random.nextInt(4 * nodes); i >= 0; i--) {
+                G.addEdge(new DirectedEdge(random.nextInt(nodes), random.nextInt(nodes), 1, random.nextInt(20) - 4));
+            }
+            BellmanFord bellmanFord = new BellmanFord(G, 0);
+            if (!bellmanFord.hasNegativeCycle()) {
+                continue;
+            }
+
+            DirectedEdge previous = null;
+            DirectedEdge first = null;
+            long costs = 0;
+            for (DirectedEdge e : bellmanFord.negativeCycle()) {
+                if (null == first) {
+                    first = e;
+                } else {
+                    assertEquals(previous.to(), e.from(), "round " + round);
+                }
+                previous = e;
+                costs += e.costs();
+            }
+            assertEquals(previous.to(), first.from(), "round " + round);
+            assertTrue(costs < 0, "round " + round);
+            assertThrows(UnsupportedOperationException.class, () -> bellmanFord.distTo(0));
+            found++;
+        }
+        assertTrue(found > 20);
+    }
+
+    @Test
+    void virtualSourceReachesEveryVertex() {
+        Random random = new Random(103);
+        for (int round = 0; round < 200; round++) {
+            int nodes = 2 + random.nextInt(25);
+            Digraph G = TestNetworks.random(random, nodes, random.nextInt(5 * nodes), 5, true);
+            BellmanFord bellmanFord = new BellmanFord(G);
+            assertFalse(bellmanFord.hasNegativeCycle());
+
+            long[] expected = distances(G, nodes, -1);
+            for (int v = 0; v < nodes; v++) {
+                String message = "round " + round + " vertex " + v;
+                assertTrue(bellmanFord.hasPathTo(v), message);
+                assertEquals(expected[v], (long) bellmanFord.distTo(v), message);
+            }
+        }
+
+        // The cycle 2-3-2 cannot be reached from vertex 0
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(0, 1, 1, 0));
+        G.addEdge(new DirectedEdge(2, 3, 1, -2));
+        G.addEdge(new DirectedEdge(3, 2, 1, 1));
+        assertFalse(new BellmanFord(G, 0).hasNegativeCycle());
+        assertTrue(new BellmanFord(G).hasNegativeCycle());
+        assertFalse(new BellmanFord(new Digraph()).hasPathTo(0));
+    }
+
+    @Test
+    void saturatedEdgesAndNegativeVerticesAreHandled() {
+        Digraph G = new Digraph();
+        DirectedEdge cheap = new DirectedEdge(0, 1, 1, -3);
+        G.addEdge(cheap);
+        G.addEdge(new DirectedEdge(1, 0, 1, 2));
+        assertTrue(new BellmanFord(G, 0).hasNegativeCycle());
+
+        cheap.flow(1);
+        BellmanFord bellmanFord = new BellmanFord(G, 0);
+        assertFalse(bellmanFord.hasNegativeCycle());
+        assertFalse(bellmanFord.hasPathTo(1));
+        assertFalse(bellmanFord.hasPathTo(5));
+
+        assertThrows(IllegalArgumentException.class, () -> new BellmanFord(G, -1));
+        G.addEdge(new DirectedEdge(-2, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BellmanFord(G, 0));
+    }
+
+    // shortest distances from s along edges with capacity left, Long.MAX_VALUE if unreachable. A negative s
+    // starts from every vertex.
+    private static long[] distances(Digraph G, int nodes, int s) {
+        long[] distance = new long[nodes];
+        Arrays.fill(distance, (s < 0) ? 0 : Long.MAX_VALUE);
+        if (s >= 0) {
+            distance[s] = 0;
+        }
+        for (int pass = 1; pass < nodes; pass++) {
+            for (DirectedEdge e : G.edges()) {
+                if (e.capacity() - e.flow() > 0 && Long.MAX_VALUE != distance[e.from()]) {
+                    distance[e.to()] = Math.min(distance[e.to()], distance[e.from()] + e.costs());
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,144 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactDigraphTest {
+
+    @Test
+    void compactKeepsEveryEdgeUnderItsTail() {
+        Random random = new Random(81);
+        for (int round = 0; round < 100; round++) {
+            int nodes = 2 + random.nextInt(20);
+            Digraph G = TestNetworks.random(random, nodes, random.nextInt(5 * nodes), 10, true);
+            CompactDigraph compact = G.compact();
+
+            assertEquals(nodes, compact.numberNodes());
+            assertEquals(G.edges().size(), compact.numberEdges());
+            for (int v = 0; v < nodes; v++) {
+                List<String> expected = new ArrayList<>();
+                for (DirectedEdge e : G.neighbors(v)) {
+                    expected.add(e.to() + " " + e.capacity() + " " + e.costs());
+                }
+                List<String> actual = new ArrayList<>();
+                for (int e = compact.first(v); e < compact.first(v + 1); e++) {
+                    actual.add(compact.to(e) + " " + compact.capacity(e) + " " + compact.costs(e));
+                }
+                Collections.sort(expected);
+                Collections.sort(actual);
+                assertEquals(expected, actual, "round " + round + " vertex " + v);
+            }
+        }
+    }
+
+    @Test
+    void edgesKeepTheirOrderWithinTheirTail() {
+        CompactDigraph G = new CompactDigraph(3, new int[] {1, 0, 1, 0}, new int[] {2, 1, 0, 2},
+                new int[] {5, 6, 7, 8}, null);
+
+        assertEquals(0, G.first(0));
+        assertEquals(2, G.first(1));
+        assertEquals(4, G.first(2));
+        assertEquals(4, G.first(3));
+        assertArrayEquals(new int[] {6, 8, 5, 7},
+                new int[] {G.capacity(0), G.capacity(1), G.capacity(2), G.capacity(3)});
+        assertEquals(0, G.costs(2));
+    }
+
+    @Test
+    void invalidEdgeListsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompactDigraph(2, new int[] {0}, new int[] {2}, new int[] {1}, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompactDigraph(2, new int[] {-1}, new int[] {1}, new int[] {1}, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompactDigraph(2, new int[] {0}, new int[] {1}, new int[] {1, 2}, null));
+
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(-1, 0, 1));
+        assertThrows(IllegalArgumentException.class, G::compact);
+    }
+
+    @Test
+    void cycleIsReportedInWalkingOrder() {
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(0, 1, 1));
+        G.addEdge(new DirectedEdge(1, 2, 1));
+        G.addEdge(new DirectedEdge(2, 3, 1));
+        G.addEdge(new DirectedEdge(3, 1, 1));
+        G.addEdge(new DirectedEdge(2, 4, 1));
+
+        EdgeWeightedDirectedCycle finder = new EdgeWeightedDirectedCycle(G);
+        assertTrue(finder.hasCycle());
+        List<DirectedEdge> cycle = new ArrayList<>();
+        for (DirectedEdge e : finder.cycle()) {
+            cycle.add(e);
+        }
+        assertEquals(3, cycle.size());
+        for (int i = 0; i < cycle.size(); i++) {
+            assertEquals(cycle.get(i).to(), cycle.get((i + 1) % cycle.size()).from());
+        }
+    }
+
+    @Test
+    void saturatedEdgesCloseNoCycle() {
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(0, 1, 1));
+        G.addEdge(new DirectedEdge(1, 2, 1));
+        DirectedEdge back = new DirectedEdge(2, 0, 1);
+        G.addEdge(back);
+        assertTrue(new EdgeWeightedDirectedCycle(G).hasCycle());
+
+        back.flow(1);
+        EdgeWeightedDirectedCycle finder = new EdgeWeightedDirectedCycle(G);
+        assertFalse(finder.hasCycle());
+        assertNull(finder.cycle());
+    }
+
+    @Test
+    void sparseVertexNumbersAreRenumbered() {
+        // Flow of 3 along -5 -> 7 -> 1000000000, and 2 more directly
+        Digraph G = new Digraph();
+        DirectedEdge first = new DirectedEdge(-5, 7, 4, 1);
+        DirectedEdge second = new DirectedEdge(7, 1000000000, 3, 1);
+        DirectedEdge direct = new DirectedEdge(-5, 1000000000, 2, 5);
+        G.addEdge(first);
+        G.addEdge(second);
+        G.addEdge(direct);
+        assertThrows(IllegalArgumentException.class, G::compact);
+        assertThrows(IllegalArgumentException.class, () -> new BellmanFord(G));
+
+        VertexNumbering numbering = new VertexNumbering(G);
+        assertEquals(3, numbering.graph().numberNodes());
+        assertEquals(0, numbering.vertex(-5));
+        assertEquals(2, numbering.vertex(1000000000));
+        assertEquals(-1, numbering.vertex(8));
+        assertEquals(7, numbering.originalVertex(1));
+        for (int e = 0; e < numbering.graph().numberEdges(); e++) {
+            assertEquals(numbering.edge(e).capacity(), numbering.graph().capacity(e));
+        }
+
+        ResidualNetwork residual = new ResidualNetwork(numbering.graph());
+        assertEquals(5, Dinic.maxFlow(residual, numbering.vertex(-5), numbering.vertex(1000000000), Integer.MAX_VALUE));
+        numbering.expand(residual);
+        assertEquals(3, first.flow());
+        assertEquals(3, second.flow());
+        assertEquals(2, direct.flow());
+        assertThrows(IllegalArgumentException.class, () -> numbering.expand(new ResidualNetwork(new Digraph(new int[4][4]))));
+    }
+
+    @Test
+    void slotsFollowTheLargestVertexNumber() {
+        Digraph G = new Digraph();
+        assertEquals(0, G.vertexSlots());
+        assertEquals(4, G.vertexSlots(3));
+        G.addEdge(new DirectedEdge(2, 70000, 1, 0));
+        assertThrows(IllegalArgumentException.class, G::vertexSlots);
+        assertEquals(65536, new Digraph().vertexSlots(65535));
+        assertThrows(IllegalArgumentException.class, () -> G.vertexSlots(-1));
+    }
+}
@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigraphBuilderTest {
+
+    @Test
+    void buildMatchesTheDigraph() {
+        Random random = new Random(71);
+        Digraph G = TestNetworks.random(random, 50, 400, 30, true);
+        DigraphBuilder builder = new DigraphBuilder();
+        for (DirectedEdge e : G.edges()) {
+            builder.addEdge(e.from(), e.to(), e.capacity(), e.costs());
+        }
+        CompactDigraph built = builder.build();
+        CompactDigraph compact = G.compact();
+
+        assertEquals(compact.numberNodes(), built.numberNodes());
+        assertEquals(compact.numberEdges(), built.numberEdges());
+        for (int v = 0; v <= compact.numberNodes(); v++) {
+            assertEquals(compact.first(v), built.first(v));
+        }
+        for (int e = 0; e < compact.numberEdges(); e++) {
+            assertEquals(compact.to(e), built.to(e));
+            assertEquals(compact.capacity(e), built.capacity(e));
+            assertEquals(compact.costs(e), built.costs(e));
+        }
+    }
+
+    @Test
+    void bulkAndSingleEdgesBuildTheSameGraph() {
+        Random random = new Random(72);
+        int[] from = new int[100000];
+        int[] to = new int[from.length];
+        int[] capacity = new int[from.length];
+        for (int i = 0; i < from.length; i++) {
+            from[i] = random.nextInt(500);
+            to[i] = random.nextInt(500);
+            capacity[i] = 1 + random.nextInt(10);
+        }
+
+        DigraphBuilder single = new DigraphBuilder(0, 1);
+        for (int i = 0; i < from.length; i++) {
+            single.addEdge(from[i], to[i], capacity[i]);
+        }
+        CompactDigraph expected = new CompactDigraph(500, from, to, capacity, null);
+        CompactDigraph bulk = new DigraphBuilder(500, from.length).addEdges(from, to, capacity, null).build();
+        CompactDigraph one = single.build();
+        assertEquals(from.length, single.numberEdges());
+        for (int v = 0; v <= 500; v++) {
+            assertEquals(expected.first(v), bulk.first(v));
+            assertEquals(expected.first(v), one.first(v));
+        }
+        for (int e = 0; e < from.length; e++) {
+            assertEquals(expected.to(e), bulk.to(e));
+            assertEquals(expected.to(e), one.to(e));
+            assertEquals(expected.capacity(e), bulk.capacity(e));
+            assertEquals(expected.capacity(e), one.capacity(e));
+        }
+        assertEquals(from.length, new DigraphBuilder().addEdges(from, to, capacity, null).buildDigraph().numberEdges());
+    }
+
+    @Test
+    void invalidEdgesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new DigraphBuilder().addEdge(-1, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DigraphBuilder().addEdges(new int[] {0}, new int[] {-1}, new int[] {1}, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DigraphBuilder().addEdges(new int[] {0}, new int[] {1}, new int[] {1, 2}, null));
+    }
+
+    @Test
+    void mergingSumsParallelEdgesOfEqualCosts() {
+        CompactDigraph G = new DigraphBuilder().mergeParallelEdges(true)
+                .addEdge(0, 1, 3, 2)
+                .addEdge(0, 2, 1, 0)
+                .addEdge(0, 1, 4, 2)
+                .addEdge(0, 1, 5, 7)
+                .build();
+
+        assertEquals(3, G.numberEdges());
+        assertEquals(1, G.to(0));
+        assertEquals(7, G.capacity(0));
+        assertEquals(2, G.costs(0));
+        assertEquals(1, G.to(1));
+        assertEquals(5, G.capacity(1));
+        assertEquals(2, G.to(2));
+    }
+
+    @Test
+    void mergedCapacitiesSaturateInsteadOfOverflowing() {
+        CompactDigraph G = new DigraphBuilder().mergeParallelEdges(true)
+                .addEdge(0, 1, Integer.MAX_VALUE - 1)
+                .addEdge(0, 1, 5)
+                .addEdge(0, 1, Integer.MAX_VALUE)
+                .build();
+
+        assertEquals(1, G.numberEdges());
+        assertEquals(Integer.MAX_VALUE, G.capacity(0));
+    }
+}
@@ -0,0 +1,81 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigraphTest {
+
+    @Test
+    void edgeViewsReadThroughToTheDigraph() {
+        Digraph G = new Digraph();
+        Set<DirectedEdge> all = G.edges();
+        Set<DirectedEdge> parallel = G.edges(0, 1);
+        assertTrue(all.isEmpty());
+        assertTrue(G.neighbors(0).isEmpty());
+
+        DirectedEdge first = new DirectedEdge(0, 1, 3);
+        DirectedEdge second = new DirectedEdge(0, 1, 4);
+        DirectedEdge other = new DirectedEdge(0, 2, 5);
+        G.addEdge(first);
+        G.addEdge(second);
+        G.addEdge(other);
+        G.addEdge(first);   // already there
+
+        assertEquals(3, all.size());
+        assertEquals(3, G.numberEdges());
+        assertTrue(all.contains(other));
+        assertFalse(all.contains(new DirectedEdge(0, 2, 5)));
+        assertEquals(2, parallel.size());
+        assertEquals(new HashSet<>(Arrays.asList(first, second)), new HashSet<>(parallel));
+        assertTrue(G.neighbors(7).isEmpty());
+    }
+
+    @Test
+    void iterationEntryPointsVisitEveryEdgeOnce() {
+        Digraph G = TestNetworks.random(new Random(121), 40, 300, 10, true);
+        Set<DirectedEdge> expected = new HashSet<>();
+        for (int v : G.nodes()) {
+            expected.addAll(G.neighbors(v));
+        }
+
+        Set<DirectedEdge> visited = new HashSet<>();
+        G.forEachEdge((DirectedEdge e) -> assertTrue(visited.add(e)));
+        assertEquals(expected, visited);
+        assertEquals(expected.size(), G.edgeStream().parallel().distinct().count());
+        assertEquals(expected, new HashSet<>(G.edges()));
+
+        AtomicLong capacity = new AtomicLong();
+        AtomicLong costs = new AtomicLong();
+        G.forEachEdge((int from, int to, int c, int w) -> {
+            capacity.addAndGet(c);
+            costs.addAndGet(w);
+        });
+        long expectedCapacity = 0;
+        long expectedCosts = 0;
+        for (DirectedEdge e : expected) {
+            expectedCapacity += e.capacity();
+            expectedCosts += e.costs();
+        }
+        assertEquals(expectedCapacity, capacity.get());
+        assertEquals(expectedCosts, costs.get());
+
+        AtomicLong compactCapacity = new AtomicLong();
+        G.compact().forEachEdge((from, to, c, w) -> compactCapacity.addAndGet(c));
+        assertEquals(expectedCapacity, compactCapacity.get());
+    }
+
+    @Test
+    void cloneCopiesEveryEdge() {
+        Digraph G = TestNetworks.random(new Random(122), 10, 40, 10, true);
+        Digraph clone = new Digraph(G);
+        assertEquals(G.numberEdges(), clone.numberEdges());
+        for (DirectedEdge e : clone.edges()) {
+            assertFalse(G.edges().contains(e));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DimacsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void maxFlowProblemRoundTrips() throws IOException {
+        Random random = new Random(21);
+        for (int round = 0; round < 50; round++) {
+            int nodes = 2 + random.nextInt(15);
+            CompactDigraph G = TestNetworks.random(random, nodes, random.nextInt(4 * nodes), 20, false).compact();
+            StringBuilder text = new StringBuilder("c random network\np max " + nodes + " " + G.numberEdges() + "\n");
+            text.append("n 1 s\nn ").append(nodes).append(" t\n");
+            for (int v = 0; v < nodes; v++) {
+                for (int e = G.first(v); e < G.first(v + 1); e++) {
+                    text.append("a ").append(v + 1).append(' ').append(G.to(e) + 1).append(' ').append(G.capacity(e)).append('\n');
+                }
+            }
+
+            Dimacs problem = Dimacs.read(write("network.max", text.toString()));
+            assertFalse(problem.isMinCostFlow());
+            assertEquals(0, problem.source());
+            assertEquals(nodes - 1, problem.sink());
+            assertSameGraph(G, problem.graph(), false);
+            assertEquals(Dinic.maxFlow(new ResidualNetwork(G), 0, nodes - 1, Integer.MAX_VALUE),
+                    Dinic.maxFlow(new ResidualNetwork(problem.graph()), problem.source(), problem.sink(), Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void minCostFlowProblemRoundTrips() throws IOException {
+        Random random = new Random(22);
+        for (int round = 0; round < 50; round++) {
+            int nodes = 2 + random.nextInt(15);
+            CompactDigraph G = TestNetworks.random(random, nodes, random.nextInt(4 * nodes), 20, true).compact();
+            StringBuilder text = new StringBuilder("p min " + nodes + " " + G.numberEdges() + "\n");
+            text.append("n 1 7\n\nn ").append(nodes).append(" -7\n");
+            for (int v = 0; v < nodes; v++) {
+                for (int e = G.first(v); e < G.first(v + 1); e++) {
+                    text.append("a\t").append(v + 1).append(' ').append(G.to(e) + 1).append(" 0 ")
+                            .append(G.capacity(e)).append(' ').append(G.costs(e)).append("\r\n");
+                }
+            }
+
+            Dimacs problem = Dimacs.read(write("network.min", text.toString()));
+            assertTrue(problem.isMinCostFlow());
+            assertEquals(-1, problem.source());
+            assertEquals(7, problem.supply(0));
+            assertEquals(-7, problem.supply(nodes - 1));
+            for (int v = 1; v < nodes - 1; v++) {
+                assertEquals(0, problem.supply(v));
+            }
+            assertSameGraph(G, problem.graph(), true);
+        }
+    }
+
+    @Test
+    void malformedFilesAreRejected() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> Dimacs.read(write("bounds.min", "p min 2 1\na 1 2 1 5 3\n")));
+        assertThrows(IllegalArgumentException.class, () -> Dimacs.read(write("vertex.max", "p max 2 1\na 1 3 5\n")));
+        assertThrows(IllegalArgumentException.class, () -> Dimacs.read(write("role.max", "p max 2 1\nn 1 x\n")));
+        assertThrows(IllegalArgumentException.class, () -> Dimacs.read(write("early.max", "a 1 2 5\np max 2 1\n")));
+        assertThrows(IllegalArgumentException.class, () -> Dimacs.read(write("empty.max", "c nothing but a comment\n")));
+    }
+
+    @Test
+    void compactDigraphFileRoundTrips() throws IOException {
+        Random random = new Random(23);
+        CompactDigraph G = TestNetworks.random(random, 40, 200, 30, true).compact();
+        Path file = directory.resolve("network.csr");
+        CompactDigraphFile.write(G, file);
+
+        CompactDigraph mapped = CompactDigraphFile.map(file);
+        assertSameGraph(G, mapped, true);
+        assertEquals(Dinic.maxFlow(new ResidualNetwork(G), 0, 39, Integer.MAX_VALUE),
+                Dinic.maxFlow(new ResidualNetwork(mapped), 0, 39, Integer.MAX_VALUE));
+
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IllegalArgumentException.class, () -> CompactDigraphFile.map(file));
+    }
+
+    private Path write(String name, String text) throws IOException {
+        return Files.write(directory.resolve(name), text.getBytes());
+    }
+
+    private static void assertSameGraph(CompactDigraph expected, CompactDigraph actual, boolean withCosts) {
+        assertEquals(expected.numberNodes(), actual.numberNodes());
+        assertEquals(expected.numberEdges(), actual.numberEdges());
+        for (int v = 0; v <= expected.numberNodes(); v++) {
+            assertEquals(expected.first(v), actual.first(v));
+        }
+        for (int e = 0; e < expected.numberEdges(); e++) {
+            assertEquals(expected.to(e), actual.to(e));
+            assertEquals(expected.capacity(e), actual.capacity(e));
+            if (withCosts) {
+                assertEquals(expected.costs(e), actual.costs(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GomoryHuTreeTest {
+
+    @Test
+    void treeAnswersEveryPairLikeAMaximumFlow() {
+        Random random = new Random(61);
+        for (int round = 0; round < 100; round++) {
+            int nodes = 1 + random.nextInt(20);
+            DigraphBuilder directed = new DigraphBuilder(nodes, 0);
+            DigraphBuilder undirected = new DigraphBuilder(nodes, 0);
+            for (int i = random.nextInt(4 * nodes); i > 0; i--) {
+                int u = random.nextInt(nodes);
+                int v = random.nextInt(nodes);
+                int capacity = random.nextInt(10);
+                directed.addEdge(u, v, capacity);
+                undirected.addEdge(u, v, capacity);
+                undirected.addEdge(v, u, capacity);
+            }
+
+            GomoryHuTree tree = new GomoryHuTree(directed.build());
+            ResidualNetwork network = new ResidualNetwork(undirected.build());
+            for (int u = 0; u < nodes; u++) {
+                for (int v = u + 1; v < nodes; v++) {
+                    int expected = Dinic.maxFlow(network.withoutFlow(), u, v, Integer.MAX_VALUE);
+                    assertEquals(expected, tree.minCut(u, v), "round " + round + " vertices " + u + ", " + v);
+                    assertEquals(expected, tree.minCut(v, u));
+                }
+            }
+            if (nodes > 1) {
+                assertEquals(tree.weight(1), tree.minCut(1, tree.parent(1)));
+            }
+            assertEquals(-1, tree.parent(0));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HopcroftKarpTest {
+
+    @Test
+    void matchingIsMaximumAndConsistent() {
+        Random random = new Random(31);
+        for (int round = 0; round < 200; round++) {
+            int left = 1 + random.nextInt(25);
+            int right = 1 + random.nextInt(25);
+            int[] first = new int[left + 1];
+            int[] adjacent = new int[random.nextInt(4 * left + 1)];
+            for (int i = 0; i < adjacent.length; i++) {
+                first[1 + random.nextInt(left)]++;
+                adjacent[i] = random.nextInt(right);
+            }
+            for (int l = 0; l < left; l++) {
+                first[l + 1] += first[l];
+            }
+
+            HopcroftKarp matching = new HopcroftKarp(left, right, first, adjacent);
+            DigraphBuilder builder = new DigraphBuilder(left + right + 2, left + right + adjacent.length);
+            int matched = 0;
+            for (int l = 0; l < left; l++) {
+                builder.addEdge(left + right, l, 1);
+                for (int i = first[l]; i < first[l + 1]; i++) {
+                    builder.addEdge(l, left + adjacent[i], 1);
+                }
+                if (-1 != matching.mate(l)) {
+                    int i = matching.matchedEdge(l);
+                    assertTrue(i >= first[l] && i < first[l + 1]);
+                    assertEquals(l, matching.mateOfRight(matching.mate(l)));
+                    matched++;
+                }
+            }
+            for (int r = 0; r < right; r++) {
+                builder.addEdge(left + r, left + right + 1, 1);
+            }
+
+            assertEquals(matched, matching.size(), "round " + round);
+            assertEquals(Dinic.maxFlow(new ResidualNetwork(builder.build()), left + right, left + right + 1,
+                    Integer.MAX_VALUE), matching.size(), "round " + round);
+        }
+    }
+
+    @Test
+    void greedyMatchesAreCounted() {
+        // The greedy pass alone finds the perfect matching 0-0, 1-1
+        HopcroftKarp matching = new HopcroftKarp(2, 2, new int[] {0, 1, 2}, new int[] {0, 1});
+        assertEquals(2, matching.size());
+    }
+
+    @Test
+    void otherShapesAreNotSolvedByMatching() {
+        // Capacity 2 on a source arc
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(2, 0, 2, 0));
+        G.addEdge(new DirectedEdge(0, 1, 1, 0));
+        G.addEdge(new DirectedEdge(1, 3, 1, 0));
+        assertEquals(-1, HopcroftKarp.maxFlow(new ResidualNetwork(G), 2, 3, Integer.MAX_VALUE));
+
+        // Path of length four from source to sink
+        Digraph H = new Digraph();
+        H.addEdge(new DirectedEdge(4, 0, 1, 0));
+        H.addEdge(new DirectedEdge(0, 1, 1, 0));
+        H.addEdge(new DirectedEdge(1, 2, 1, 0));
+        H.addEdge(new DirectedEdge(2, 5, 1, 0));
+        H.addEdge(new DirectedEdge(3, 3, 0, 0));
+        assertEquals(-1, HopcroftKarp.maxFlow(new ResidualNetwork(H), 4, 5, Integer.MAX_VALUE));
+
+        ResidualNetwork solved = new ResidualNetwork(TestNetworks.bipartite(new Random(32), 5, 5, 15));
+        Dinic.maxFlow(solved, 10, 11, Integer.MAX_VALUE);
+        assertEquals(-1, HopcroftKarp.maxFlow(solved, 10, 11, Integer.MAX_VALUE));
+        assertEquals(-1, HopcroftKarp.maxFlow(solved.withoutFlow(), 10, 10, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void limitBoundsTheMatching() {
+        Random random = new Random(33);
+        for (int round = 0; round < 100; round++) {
+            Digraph G = TestNetworks.bipartite(random, 15, 15, 40);
+            ResidualNetwork network = new ResidualNetwork(G);
+            int maximum = HopcroftKarp.maxFlow(network.withoutFlow(), 30, 31, Integer.MAX_VALUE);
+            int limit = 1 + random.nextInt(maximum + 1);
+
+            ResidualNetwork residual = network.withoutFlow();
+            assertEquals(Math.min(limit, maximum), HopcroftKarp.maxFlow(residual, 30, 31, limit));
+            MaxFlowTest.assertFlow(residual, 30, 31, Math.min(limit, maximum));
+        }
+    }
+}
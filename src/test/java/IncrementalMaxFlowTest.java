@@ -0,0 +1,114 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalMaxFlowTest {
+
+    @Test
+    void updatesFollowAFreshSolve() {
+        Random random = new Random(51);
+        for (int round = 0; round < 200; round++) {
+            int nodes = 3 + random.nextInt(20);
+            CompactDigraph G = TestNetworks.random(random, nodes, 4 * nodes, 10, false).compact();
+            int[] from = new int[G.numberEdges()];
+            int[] to = new int[G.numberEdges()];
+            int[] capacities = new int[G.numberEdges()];
+            for (int v = 0; v < G.numberNodes(); v++) {
+                for (int e = G.first(v); e < G.first(v + 1); e++) {
+                    from[e] = v;
+                    to[e] = G.to(e);
+                    capacities[e] = G.capacity(e);
+                }
+            }
+            IncrementalMaxFlow flow = new IncrementalMaxFlow(new ResidualNetwork(G), 0, nodes - 1);
+            assertEquals(Dinic.maxFlow(new ResidualNetwork(G), 0, nodes - 1, Integer.MAX_VALUE), flow.value());
+
+            for (int step = 0; step < 10 && capacities.length > 0; step++) {
+                int e = random.nextInt(capacities.length);
+                capacities[e] = random.nextInt(12);
+                int expected = Dinic.maxFlow(new ResidualNetwork(new CompactDigraph(nodes, from, to, capacities, null)),
+                        0, nodes - 1, Integer.MAX_VALUE);
+                String message = "round " + round + " step " + step;
+                assertEquals(expected, flow.setCapacity(e, capacities[e]), message);
+                MaxFlowTest.assertFlow(flow.residual(), 0, nodes - 1, flow.value());
+            }
+        }
+    }
+
+    @Test
+    void updatesByEdgeFollowAFreshSolve() {
+        Random random = new Random(51);
+        for (int round = 0; round < 200; round++) {
+            int nodes = 3 + random.nextInt(20);
+            Digraph G = TestNetworks.random(random, nodes, 4 * nodes, 10, false);
+            List<DirectedEdge> edges = new ArrayList<>(G.edges());
+            IncrementalMaxFlow flow = new IncrementalMaxFlow(G, 0, nodes - 1);
+            assertEquals(Dinic.maxFlow(G, 0, nodes - 1), flow.value());
+
+            for (int step = 0; step < 10; step++) {
+                DirectedEdge e = edges.get(random.nextInt(edges.size()));
+                int capacity = random.nextInt(12);
+                e.capacity(capacity);
+                String message = "round " + round + " step " + step;
+                assertEquals(Dinic.maxFlow(G, 0, nodes - 1), flow.setCapacity(e, capacity), message);
+                MaxFlowTest.assertFlow(flow.residual(), 0, nodes - 1, flow.value());
+            }
+        }
+    }
+
+    @Test
+    void batchedUpdatesFollowAFreshSolve() {
+        Random random = new Random(52);
+        for (int round = 0; round < 100; round++) {
+            CompactDigraph G = TestNetworks.random(random, 15, 60, 10, false).compact();
+            int[] capacities = new int[G.numberEdges()];
+            int[] from = new int[G.numberEdges()];
+            int[] to = new int[G.numberEdges()];
+            for (int v = 0; v < G.numberNodes(); v++) {
+                for (int e = G.first(v); e < G.first(v + 1); e++) {
+                    from[e] = v;
+                    to[e] = G.to(e);
+                    capacities[e] = G.capacity(e);
+                }
+            }
+            IncrementalMaxFlow flow = new IncrementalMaxFlow(new ResidualNetwork(G), 0, 14);
+
+            int[] edges = new int[5];
+            int[] updated = new int[5];
+            for (int i = 0; i < edges.length; i++) {
+                edges[i] = random.nextInt(capacities.length);
+                updated[i] = random.nextInt(12);
+                capacities[edges[i]] = updated[i];
+            }
+            int expected = Dinic.maxFlow(new ResidualNetwork(new CompactDigraph(15, from, to, capacities, null)),
+                    0, 14, Integer.MAX_VALUE);
+            assertEquals(expected, flow.setCapacities(edges, updated), "round " + round);
+            MaxFlowTest.assertFlow(flow.residual(), 0, 14, expected);
+        }
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        ResidualNetwork network = new ResidualNetwork(TestNetworks.random(new Random(53), 6, 20, 5, false));
+        IncrementalMaxFlow flow = new IncrementalMaxFlow(network, 0, 5);
+        assertThrows(IllegalArgumentException.class, () -> flow.setCapacities(new int[1], new int[2]));
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalMaxFlow(network.withoutFlow(), 3, 3));
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalMaxFlow(network.withoutFlow(), -1, 3));
+    }
+
+    @Test
+    void unknownEdgesAreRejected() {
+        Digraph G = TestNetworks.random(new Random(54), 6, 20, 5, false);
+        IncrementalMaxFlow flow = new IncrementalMaxFlow(G, 0, 5);
+        DirectedEdge foreign = new DirectedEdge(0, 5, 3, 0);
+        assertThrows(IllegalArgumentException.class, () -> flow.setCapacity(foreign, 4));
+
+        IncrementalMaxFlow byNumber = new IncrementalMaxFlow(new ResidualNetwork(G), 0, 5);
+        DirectedEdge known = G.edges().iterator().next();
+        assertThrows(IllegalArgumentException.class, () -> byNumber.edgeNumber(known));
+    }
+}
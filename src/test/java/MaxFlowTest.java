@@ -0,0 +1,224 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaxFlowTest {
+
+    private static final int[][] EXAMPLE = {
+            {   0, 5, 5, 2, 0, 0, 0 },
+            {   0, 0, 0, 0, 1, 0, 2 },
+            {   0, 0, 0, 1, 5, 0, 0 },
+            {   0, 0, 0, 0, 0, 4, 0 },
+            {   0, 0, 0, 0, 0, 2, 3 },
+            {   0, 0, 0, 0, 0, 0, 6 },
+            {   0, 0, 0, 0, 0, 0, 0 }    };
+
+    @Test
+    void solversFindTheKnownFlowOfTheExample() {
+        Digraph G = new Digraph(EXAMPLE);
+        assertEquals(10, FordFulkerson.fordFulkerson(G, 0, 6));
+        assertEquals(10, Dinic.maxFlow(G, 0, 6));
+        assertEquals(10, PushRelabel.maxFlow(G, 0, 6));
+        assertEquals(10, ParallelPushRelabel.maxFlow(G, 0, 6));
+    }
+
+    @Test
+    void solversAgreeOnRandomNetworks() {
+        Random random = new Random(1);
+        for (int round = 0; round < 300; round++) {
+            int nodes = 2 + random.nextInt(20);
+            Digraph G = TestNetworks.random(random, nodes, random.nextInt(5 * nodes), 1 + random.nextInt(20), false);
+            int sink = nodes - 1;
+
+            ResidualNetwork residual = new ResidualNetwork(G);
+            int expected = FordFulkerson.fordFulkerson(new ResidualNetwork(G), 0, sink, Integer.MAX_VALUE);
+            assertEquals(expected, Dinic.maxFlow(residual, 0, sink, Integer.MAX_VALUE), "round " + round);
+            assertFlow(residual, 0, sink, expected);
+            residual = new ResidualNetwork(G);
+            assertEquals(expected, PushRelabel.maxFlow(residual, 0, sink, Integer.MAX_VALUE), "round " + round);
+            assertFlow(residual, 0, sink, expected);
+            residual = new ResidualNetwork(G);
+            assertEquals(expected, ParallelPushRelabel.maxFlow(residual, 0, sink, Integer.MAX_VALUE, 3), "round " + round);
+            assertFlow(residual, 0, sink, expected);
+            assertEquals(expected, FordFulkerson.minCut(new ResidualNetwork(G), 0, sink).value(), "round " + round);
+        }
+    }
+
+    @Test
+    void solversAgreeOnBipartiteNetworks() {
+        Random random = new Random(2);
+        for (int round = 0; round < 200; round++) {
+            int left = 1 + random.nextInt(30);
+            int right = 1 + random.nextInt(30);
+            Digraph G = TestNetworks.bipartite(random, left, right, random.nextInt(4 * left + 1));
+            ResidualNetwork network = new ResidualNetwork(G);
+            int source = left + right;
+            int sink = source + 1;
+
+            int expected = Dinic.maxFlow(network.withoutFlow(), source, sink, Integer.MAX_VALUE);
+            String message = "round " + round;
+            assertEquals(expected, HopcroftKarp.maxFlow(network.withoutFlow(), source, sink, Integer.MAX_VALUE), message);
+            assertEquals(expected, FordFulkerson.fordFulkerson(network.withoutFlow(), source, sink, Integer.MAX_VALUE), message);
+            assertEquals(expected, PushRelabel.maxFlow(network.withoutFlow(), source, sink, Integer.MAX_VALUE), message);
+            assertEquals(expected, ParallelPushRelabel.maxFlow(network.withoutFlow(), source, sink, Integer.MAX_VALUE, 2), message);
+        }
+    }
+
+    @Test
+    void limitBoundsTheFlow() {
+        Random random = new Random(3);
+        for (int round = 0; round < 100; round++) {
+            Digraph G = TestNetworks.random(random, 12, 40, 10, false);
+            int maximum = Dinic.maxFlow(new ResidualNetwork(G), 0, 11, Integer.MAX_VALUE);
+            int limit = random.nextInt(maximum + 1);
+
+            assertEquals(limit, FordFulkerson.fordFulkerson(new ResidualNetwork(G), 0, 11, limit));
+            ResidualNetwork residual = new ResidualNetwork(G);
+            assertEquals(limit, Dinic.maxFlow(residual, 0, 11, limit));
+            assertFlow(residual, 0, 11, limit);
+            residual = new ResidualNetwork(G);
+            assertEquals(limit, PushRelabel.maxFlow(residual, 0, 11, limit));
+            assertFlow(residual, 0, 11, limit);
+            residual = new ResidualNetwork(G);
+            assertEquals(limit, ParallelPushRelabel.maxFlow(residual, 0, 11, limit, 2));
+            assertFlow(residual, 0, 11, limit);
+        }
+    }
+
+    @Test
+    void sourceEqualToSinkOrMissingSendsNothing() {
+        Digraph G = new Digraph(EXAMPLE);
+        for (int[] ends : new int[][] {{3, 3}, {-1, 6}, {0, -1}, {0, 7}}) {
+            assertEquals(0, FordFulkerson.fordFulkerson(new ResidualNetwork(G), ends[0], ends[1], Integer.MAX_VALUE));
+            assertEquals(0, Dinic.maxFlow(new ResidualNetwork(G), ends[0], ends[1], Integer.MAX_VALUE));
+            assertEquals(0, PushRelabel.maxFlow(new ResidualNetwork(G), ends[0], ends[1], Integer.MAX_VALUE));
+            assertEquals(0, ParallelPushRelabel.maxFlow(new ResidualNetwork(G), ends[0], ends[1], Integer.MAX_VALUE, 2));
+            assertThrows(IllegalArgumentException.class, () -> new PushRelabel(new ResidualNetwork(G), ends[0], ends[1]));
+            assertThrows(IllegalArgumentException.class, () -> new ParallelPushRelabel(new ResidualNetwork(G), ends[0], ends[1], 2));
+            assertThrows(IllegalArgumentException.class, () -> FordFulkerson.minCut(new ResidualNetwork(G), ends[0], ends[1]));
+        }
+    }
+
+    @Test
+    void infeasibleDemandIsRejected() {
+        Digraph G = new Digraph(EXAMPLE);
+        assertNotNull(FordFulkerson.fordFulkerson(G, 0, 6, 10));
+        assertNotNull(Dinic.maxFlow(G, 0, 6, 10));
+        assertThrows(IllegalArgumentException.class, () -> FordFulkerson.fordFulkerson(G, 0, 6, 11));
+        assertThrows(IllegalArgumentException.class, () -> Dinic.maxFlow(G, 0, 6, 11));
+        assertThrows(IllegalArgumentException.class, () -> PushRelabel.maxFlow(G, 0, 6, 11));
+    }
+
+    @Test
+    void preflowAlreadyKnowsValueAndCut() {
+        Random random = new Random(6);
+        for (int round = 0; round < 100; round++) {
+            Digraph G = TestNetworks.random(random, 15, 50, 10, false);
+            int expected = Dinic.maxFlow(new ResidualNetwork(G), 0, 14, Integer.MAX_VALUE);
+            ResidualNetwork residual = new ResidualNetwork(G);
+            PushRelabel pushRelabel = new PushRelabel(residual, 0, 14);
+            assertEquals(expected, pushRelabel.value());
+
+            // Arcs leaving the source side are saturated, so the cut capacity is the flow value
+            assertTrue(pushRelabel.inCut(0));
+            assertFalse(pushRelabel.inCut(14));
+            long capacity = 0;
+            for (int a = 0; a < residual.numberArcs(); a += 2) {
+                if (pushRelabel.inCut(residual.tail(a)) && !pushRelabel.inCut(residual.head(a))) {
+                    capacity += residual.capacity(a);
+                }
+            }
+            assertEquals(expected, capacity);
+
+            pushRelabel.toFlow();
+            assertFlow(residual, 0, 14, expected);
+        }
+    }
+
+    @Test
+    void parallelSolverSplitsTheGlobalRelabelOnLargeNetworks() {
+        Random random = new Random(6);
+        for (int round = 0; round < 3; round++) {
+            int nodes = 30000;
+            CompactDigraph G = TestNetworks.random(random, nodes, 5 * nodes, 100, false).compact();
+            int expected = Dinic.maxFlow(new ResidualNetwork(G), 0, nodes - 1, Integer.MAX_VALUE);
+            ResidualNetwork residual = new ResidualNetwork(G);
+            assertEquals(expected, ParallelPushRelabel.maxFlow(residual, 0, nodes - 1, Integer.MAX_VALUE, 4), "round " + round);
+            assertFlow(residual, 0, nodes - 1, expected);
+        }
+    }
+
+    @Test
+    void parallelSolverNeedsAThread() {
+        Digraph G = new Digraph(EXAMPLE);
+        assertThrows(IllegalArgumentException.class, () -> new ParallelPushRelabel(new ResidualNetwork(G), 0, 6, 0));
+        assertEquals(10, new ParallelPushRelabel(new ResidualNetwork(G), 0, 6, 1).value());
+    }
+
+    @Test
+    void minCutSeparatesSourceFromSinkBySaturatedArcs() {
+        Random random = new Random(4);
+        for (int round = 0; round < 200; round++) {
+            Digraph G = TestNetworks.random(random, 15, 50, 10, false);
+            ResidualNetwork residual = new ResidualNetwork(G);
+            MinCut cut = FordFulkerson.minCut(residual, 0, 14);
+
+            assertTrue(cut.inSourceSide(0));
+            assertFalse(cut.inSourceSide(14));
+            long capacity = 0;
+            for (int a : cut.cutArcs()) {
+                assertTrue(cut.inSourceSide(residual.tail(a)));
+                assertFalse(cut.inSourceSide(residual.head(a)));
+                assertEquals(0, residual.residualCapacity(a));
+                capacity += residual.capacity(a);
+            }
+            assertEquals(cut.value(), capacity);
+        }
+    }
+
+    @Test
+    void batchAnswersEveryQueryLikeASingleSolve() {
+        Random random = new Random(5);
+        Digraph G = TestNetworks.random(random, 30, 150, 20, false);
+        ResidualNetwork network = new ResidualNetwork(G);
+        List<MaxFlowBatch.Query> queries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            queries.add(new MaxFlowBatch.Query(random.nextInt(30), random.nextInt(30), 1 + random.nextInt(40)));
+        }
+
+        int[] flows = new MaxFlowBatch(network).solve(queries);
+        for (int i = 0; i < queries.size(); i++) {
+            MaxFlowBatch.Query query = queries.get(i);
+            assertEquals(Dinic.maxFlow(network.withoutFlow(), query.source(), query.sink(), query.demand()), flows[i]);
+        }
+    }
+
+    @Test
+    void listenerSeesEveryAugmentation() {
+        SolverStats stats = new SolverStats();
+        int flow = FordFulkerson.fordFulkerson(new ResidualNetwork(new Digraph(EXAMPLE)), 0, 6, Integer.MAX_VALUE, stats);
+
+        assertEquals(flow, stats.augmentedFlow());
+        assertEquals(stats.augmentations() + 1, stats.searches());
+        assertTrue(stats.phaseNanos("augmenting paths") > 0);
+    }
+
+    // capacity bounds, conservation, and value of the flow in the residual network
+    static void assertFlow(ResidualNetwork residual, int source, int sink, int value) {
+        long[] excess = new long[residual.numberNodes()];
+        for (int a = 0; a < residual.numberArcs(); a += 2) {
+            int flow = residual.flow(a);
+            assertTrue(flow >= 0 && flow <= residual.capacity(a), "flow on arc " + a);
+            excess[residual.tail(a)] -= flow;
+            excess[residual.head(a)] += flow;
+        }
+        for (int v = 0; v < excess.length; v++) {
+            long expected = (v == source) ? -value : (v == sink) ? value : 0;
+            assertEquals(expected, excess[v], "excess at vertex " + v);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinCostFlowTest {
+
+    private static final int[][] CAPACITIES = {
+            {   0, 4, 2, 0 },
+            {   0, 0, 2, 3 },
+            {   0, 0, 0, 5 },
+            {   0, 0, 0, 0 }    };
+
+    private static final int[][] COSTS = {
+            {   0, 1, 5, 0 },
+            {   0, 0, 1, 6 },
+            {   0, 0, 0, 1 },
+            {   0, 0, 0, 0 }    };
+
+    @Test
+    void enginesFindTheKnownCostsOfTheExample() {
+        // 2 units along 0-1-2-3 at 3, 2 units along 0-2-3 at 6 and 1 unit along 0-1-3 at 7
+        Digraph G = new Digraph(CAPACITIES, COSTS);
+        assertEquals(25, CycleCancelling.minCostFlow(G, 0, 3, 5));
+        assertEquals(25, new CycleCancelling(G, 0, 3, 5, true).costs());
+        assertEquals(25, SuccessiveShortestPath.minCostFlow(G, 0, 3, 5));
+        assertEquals(25, NetworkSimplex.minCostFlow(G, 0, 3, 5));
+        assertEquals(25, CostScaling.minCostFlow(G, 0, 3, 5));
+    }
+
+    @Test
+    void enginesAgreeOnRandomNetworks() {
+        Random random = new Random(11);
+        int solved = 0;
+        for (int round = 0; round < 300; round++) {
+            int nodes = 2 + random.nextInt(12);
+            Digraph G = TestNetworks.random(random, nodes, random.nextInt(4 * nodes), 1 + random.nextInt(10), true);
+            int sink = nodes - 1;
+            int maximum = Dinic.maxFlow(G, 0, sink);
+            if (0 == maximum) {
+                continue;
+            }
+            int demand = 1 + random.nextInt(maximum);
+
+            ResidualNetwork residual = new ResidualNetwork(G);
+            long expected = SuccessiveShortestPath.minCostFlow(residual, 0, sink, demand);
+            String message = "round " + round;
+            MaxFlowTest.assertFlow(residual, 0, sink, demand);
+            assertOptimal(residual, message);
+            assertEquals(expected, costs(residual), message);
+            assertEquals(expected, new CycleCancelling(G, 0, sink, demand, true).costs(), message);
+            assertEquals(expected, new CycleCancelling(G, 0, sink, demand, false).costs(), message);
+            assertEquals(expected, NetworkSimplex.minCostFlow(G.compact(), 0, sink, demand), message);
+            residual = new ResidualNetwork(G);
+            assertEquals(expected, CostScaling.minCostFlow(residual, 0, sink, demand), message);
+            MaxFlowTest.assertFlow(residual, 0, sink, demand);
+            solved++;
+        }
+        assertTrue(solved > 100);
+    }
+
+    @Test
+    void infeasibleDemandIsRejected() {
+        Digraph G = new Digraph(CAPACITIES, COSTS);
+        assertThrows(IllegalArgumentException.class, () -> CycleCancelling.minCostFlow(G, 0, 3, 7));
+        assertThrows(IllegalArgumentException.class, () -> SuccessiveShortestPath.minCostFlow(G, 0, 3, 7));
+        assertThrows(IllegalArgumentException.class, () -> NetworkSimplex.minCostFlow(G, 0, 3, 7));
+        assertThrows(IllegalArgumentException.class, () -> CostScaling.minCostFlow(G, 0, 3, 7));
+    }
+
+    @Test
+    void noDemandCostsNothing() {
+        Digraph G = new Digraph(CAPACITIES, COSTS);
+        for (int demand : new int[] {0, -3}) {
+            assertEquals(0, SuccessiveShortestPath.minCostFlow(G, 0, 3, demand));
+            assertEquals(0, NetworkSimplex.minCostFlow(G, 0, 3, demand));
+            assertEquals(0, CostScaling.minCostFlow(G, 0, 3, demand));
+        }
+    }
+
+    @Test
+    void sourceEqualToSinkOrMissingIsRejected() {
+        Digraph G = new Digraph(CAPACITIES, COSTS);
+        for (int[] ends : new int[][] {{2, 2}, {-1, 3}, {0, -1}, {0, 4}}) {
+            assertThrows(IllegalArgumentException.class, () -> SuccessiveShortestPath.minCostFlow(G, ends[0], ends[1], 1));
+            assertThrows(IllegalArgumentException.class, () -> NetworkSimplex.minCostFlow(G, ends[0], ends[1], 1));
+            assertThrows(IllegalArgumentException.class, () -> CostScaling.minCostFlow(G, ends[0], ends[1], 1));
+        }
+    }
+
+    @Test
+    void negativeCycles() {
+        // The path 0-1-2-3 costs -5, and one more unit can circle 1-2-1 at -4
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(0, 1, 1, 0));
+        G.addEdge(new DirectedEdge(1, 2, 2, -5));
+        G.addEdge(new DirectedEdge(2, 1, 2, 1));
+        G.addEdge(new DirectedEdge(2, 3, 1, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> SuccessiveShortestPath.minCostFlow(G, 0, 3, 1));
+        CycleCancelling minimumMean = new CycleCancelling(G, 0, 3, 1, true);
+        assertEquals(-9, minimumMean.costs());
+        assertEquals(1, minimumMean.rounds());
+        assertEquals(-9, new CycleCancelling(G, 0, 3, 1, false).costs());
+        assertEquals(-9, NetworkSimplex.minCostFlow(G, 0, 3, 1));
+        assertEquals(-9, CostScaling.minCostFlow(G, 0, 3, 1));
+    }
+
+    // costs of the flow in the residual network
+    @Test
+    void warmStartFollowsTheDemand() {
+        Random random = new Random(12);
+        for (int round = 0; round < 100; round++) {
+            Digraph G = TestNetworks.random(random, 10, 40, 8, true);
+            int maximum = Dinic.maxFlow(G, 0, 9);
+            SuccessiveShortestPath warm = new SuccessiveShortestPath(new ResidualNetwork(G), 0, 9);
+            for (int step = 0; step < 5; step++) {
+                int demand = random.nextInt(maximum + 1);
+                long expected = SuccessiveShortestPath.minCostFlow(new ResidualNetwork(G), 0, 9, demand);
+                assertEquals(expected, warm.setDemand(demand), "round " + round + " step " + step);
+                assertEquals(demand, warm.flow());
+            }
+        }
+    }
+
+    @Test
+    void listenerCountsCancelledCycles() {
+        SolverStats stats = new SolverStats();
+        CycleCancelling solver = new CycleCancelling(new Digraph(CAPACITIES, COSTS), 0, 3, 5, false, stats);
+
+        assertEquals(solver.rounds(), stats.cancelRounds());
+        assertEquals(solver.rounds() + 1, stats.negativeCycleSearches());
+        assertTrue(stats.relaxations() > 0);
+    }
+
+    static long costs(ResidualNetwork residual) {
+        long costs = 0;
+        for (int a = 0; a < residual.numberArcs(); a += 2) {
+            costs += (long) residual.flow(a) * residual.costs(a);
+        }
+        return costs;
+    }
+
+    // a flow has minimum costs if its residual network has no negative cycle, checked by Bellman-Ford from all vertices
+    static void assertOptimal(ResidualNetwork residual, String message) {
+        long[] distance = new long[residual.numberNodes()];
+        boolean relaxed = true;
+        for (int pass = 0; pass <= distance.length && relaxed; pass++) {
+            relaxed = false;
+            for (int a = 0; a < residual.numberArcs(); a++) {
+                if (residual.residualCapacity(a) > 0 && distance[residual.tail(a)] + residual.costs(a) < distance[residual.head(a)]) {
+                    distance[residual.head(a)] = distance[residual.tail(a)] + residual.costs(a);
+                    relaxed = true;
+                }
+            }
+        }
+        assertFalse(relaxed, message + ": negative cycle left in " + Arrays.toString(distance));
+    }
+}
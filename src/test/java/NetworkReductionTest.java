@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkReductionTest {
+
+    @Test
+    void reductionKeepsFlowsAndCosts() {
+        Random random = new Random(41);
+        long before = 0;
+        long after = 0;
+        for (int round = 0; round < 300; round++) {
+            int nodes = 3 + random.nextInt(30);
+            Digraph G = withChains(random, TestNetworks.random(random, nodes, random.nextInt(3 * nodes), 8, false), nodes);
+            int sink = nodes - 1;
+            String message = "round " + round;
+
+            NetworkReduction reduction = new NetworkReduction(G, 0, sink);
+            before += G.numberEdges();
+            after += reduction.graph().numberEdges();
+            int maximum = Dinic.maxFlow(new ResidualNetwork(G), 0, sink, Integer.MAX_VALUE);
+            ResidualNetwork residual = new ResidualNetwork(reduction.graph());
+            assertEquals(maximum, Dinic.maxFlow(residual, reduction.source(), reduction.sink(), Integer.MAX_VALUE), message);
+            reduction.expand(residual);
+            assertExpandedFlow(G, 0, sink, maximum);
+
+            if (maximum > 0) {
+                int demand = 1 + random.nextInt(maximum);
+                long costs = SuccessiveShortestPath.minCostFlow(new ResidualNetwork(G), 0, sink, demand);
+                ResidualNetwork reduced = new ResidualNetwork(reduction.graph());
+                assertEquals(costs, SuccessiveShortestPath.minCostFlow(reduced, reduction.source(), reduction.sink(), demand), message);
+                reduction.expand(reduced);
+                assertExpandedFlow(G, 0, sink, demand);
+                long expandedCosts = 0;
+                for (DirectedEdge e : G.edges()) {
+                    expandedCosts += (long) e.flow() * e.costs();
+                }
+                assertEquals(costs, expandedCosts, message);
+            }
+        }
+        assertTrue(after < before);
+    }
+
+    @Test
+    void verticesAreMappedBothWays() {
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(0, 1, 4, 1));
+        G.addEdge(new DirectedEdge(1, 2, 3, 1));
+        G.addEdge(new DirectedEdge(0, 2, 2, 5));
+        G.addEdge(new DirectedEdge(3, 0, 9, 0));    // cannot be reached from the source
+        NetworkReduction reduction = new NetworkReduction(G, 0, 2);
+
+        assertEquals(-1, reduction.vertex(3));
+        assertEquals(-1, reduction.vertex(-1));
+        assertEquals(-1, reduction.vertex(17));
+        assertEquals(0, reduction.originalVertex(reduction.source()));
+        assertEquals(2, reduction.originalVertex(reduction.sink()));
+        assertThrows(IllegalArgumentException.class, () -> reduction.expand(new ResidualNetwork(G)));
+        assertThrows(IllegalArgumentException.class, () -> new NetworkReduction(G, 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> new NetworkReduction(G, -1, 2));
+    }
+
+    // adds chains of fresh vertices between random vertices, which the reduction contracts
+    private static Digraph withChains(Random random, Digraph G, int nodes) {
+        int next = nodes;
+        for (int chain = 0; chain < 3; chain++) {
+            int previous = random.nextInt(nodes);
+            for (int i = random.nextInt(5); i >= 0; i--) {
+                G.addEdge(new DirectedEdge(previous, next, 1 + random.nextInt(8), random.nextInt(10)));
+                previous = next++;
+            }
+            G.addEdge(new DirectedEdge(previous, random.nextInt(nodes), 1 + random.nextInt(8), random.nextInt(10)));
+        }
+        return G;
+    }
+
+    // capacity bounds, conservation, and value of the flow expanded onto the edges
+    private static void assertExpandedFlow(Digraph G, int source, int sink, int value) {
+        Map<Integer, Long> excess = new HashMap<>();
+        for (DirectedEdge e : G.edges()) {
+            assertTrue(e.flow() >= 0 && e.flow() <= e.capacity(), "flow on " + e.from() + " -> " + e.to());
+            excess.merge(e.from(), (long) -e.flow(), Long::sum);
+            excess.merge(e.to(), (long) e.flow(), Long::sum);
+        }
+        for (Map.Entry<Integer, Long> entry : excess.entrySet()) {
+            int v = entry.getKey();
+            long expected = (v == source) ? -value : (v == sink) ? value : 0;
+            assertEquals(expected, (long) entry.getValue(), "excess at vertex " + v);
+        }
+    }
+}
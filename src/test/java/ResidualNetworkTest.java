@@ -0,0 +1,183 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResidualNetworkTest {
+
+    @Test
+    void everyEdgeIsPairedWithItsReverseArc() {
+        Random random = new Random(91);
+        Digraph G = TestNetworks.random(random, 20, 80, 10, true);
+        CompactDigraph compact = G.compact();
+        ResidualNetwork network = new ResidualNetwork(compact);
+
+        assertEquals(2 * compact.numberEdges(), network.numberArcs());
+        for (int v = 0; v < compact.numberNodes(); v++) {
+            for (int e = compact.first(v); e < compact.first(v + 1); e++) {
+                int a = 2 * e;
+                assertFalse(network.isResidualArc(a));
+                assertTrue(network.isResidualArc(a ^ 1));
+                assertEquals(v, network.tail(a));
+                assertEquals(compact.to(e), network.head(a));
+                assertEquals(network.head(a), network.tail(a ^ 1));
+                assertEquals(compact.capacity(e), network.residualCapacity(a));
+                assertEquals(0, network.residualCapacity(a ^ 1));
+                assertEquals(-network.costs(a), network.costs(a ^ 1));
+            }
+        }
+        for (int v = 0; v < network.numberNodes(); v++) {
+            for (int i = network.first(v); i < network.first(v + 1); i++) {
+                assertEquals(v, network.tail(network.arc(i)));
+            }
+        }
+    }
+
+    @Test
+    void pushMovesCapacityToTheReverseArc() {
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(0, 1, 5, 3));
+        ResidualNetwork network = new ResidualNetwork(G);
+
+        network.push(0, 2);
+        assertEquals(3, network.residualCapacity(0));
+        assertEquals(2, network.residualCapacity(1));
+        assertEquals(2, network.flow(0));
+        assertEquals(-2, network.flow(1));
+
+        network.push(1, 2);
+        assertEquals(5, network.residualCapacity(0));
+        assertEquals(0, network.flow(0));
+    }
+
+    @Test
+    void toDigraphLinksTheInverseEdges() {
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(0, 1, 5, 3));
+        G.addEdge(new DirectedEdge(1, 2, 4, -1));
+        ResidualNetwork network = new ResidualNetwork(G);
+        FordFulkerson.fordFulkerson(network, 0, 2, Integer.MAX_VALUE);
+
+        Digraph residual = network.toDigraph();
+        assertEquals(4, residual.edges().size());
+        for (DirectedEdge e : residual.edges()) {
+            assertSame(e, e.inverseEdge().inverseEdge());
+            if (!e.isResidualEdge()) {
+                assertEquals(4, e.flow());
+                assertEquals(e.flow(), e.inverseEdge().capacity());
+                assertEquals(-e.costs(), e.inverseEdge().costs());
+            }
+        }
+    }
+
+    @Test
+    void offHeapNetworkEqualsTheHeapNetwork() {
+        Random random = new Random(92);
+        for (int round = 0; round < 50; round++) {
+            CompactDigraph G = TestNetworks.random(random, 25, 100, 10, true).compact();
+            ResidualNetwork heap = new ResidualNetwork(G, false);
+            ResidualNetwork offHeap = new ResidualNetwork(G, true);
+
+            assertEquals(heap.numberNodes(), offHeap.numberNodes());
+            assertEquals(heap.numberArcs(), offHeap.numberArcs());
+            for (int v = 0; v <= heap.numberNodes(); v++) {
+                assertEquals(heap.first(v), offHeap.first(v));
+            }
+            for (int a = 0; a < heap.numberArcs(); a++) {
+                assertEquals(heap.arc(a), offHeap.arc(a));
+                assertEquals(heap.head(a), offHeap.head(a));
+                assertEquals(heap.capacity(a), offHeap.capacity(a));
+                assertEquals(heap.costs(a), offHeap.costs(a));
+            }
+
+            int flow = Dinic.maxFlow(heap, 0, 24, Integer.MAX_VALUE);
+            assertEquals(flow, Dinic.maxFlow(offHeap, 0, 24, Integer.MAX_VALUE));
+            MaxFlowTest.assertFlow(offHeap, 0, 24, flow);
+        }
+    }
+
+    @Test
+    void offHeapArraysStartAtZero() {
+        IntArray array = new IntArray(1000, true);
+        assertEquals(1000, array.length());
+        for (int i = 0; i < array.length(); i++) {
+            assertEquals(0, array.get(i));
+            array.set(i, i);
+            array.add(i, -2 * i);
+        }
+        assertEquals(-999, array.get(999));
+        assertEquals(0, new IntArray(0, true).length());
+    }
+
+    @Test
+    void derivedNetworksShareTheTopologyButNotTheFlow() {
+        for (boolean offHeap : new boolean[] {false, true}) {
+            CompactDigraph G = TestNetworks.random(new Random(93), 20, 80, 10, false).compact();
+            ResidualNetwork network = new ResidualNetwork(G, offHeap);
+            int flow = Dinic.maxFlow(network, 0, 19, Integer.MAX_VALUE);
+
+            ResidualNetwork derived = network.withoutFlow();
+            for (int a = 0; a < derived.numberArcs(); a++) {
+                assertEquals(derived.capacity(a), derived.residualCapacity(a));
+                assertEquals(network.head(a), derived.head(a));
+            }
+            assertEquals(flow, Dinic.maxFlow(derived, 0, 19, Integer.MAX_VALUE));
+            MaxFlowTest.assertFlow(network, 0, 19, flow);
+
+            network.reset();
+            MaxFlowTest.assertFlow(network, 0, 19, 0);
+            MaxFlowTest.assertFlow(derived, 0, 19, flow);
+        }
+    }
+
+    @Test
+    void pooledNetworksCanBeSolvedConcurrently() {
+        Random random = new Random(94);
+        CompactDigraph G = TestNetworks.random(random, 40, 200, 10, false).compact();
+        ResidualNetworkPool pool = new ResidualNetworkPool(new ResidualNetwork(G));
+        int[] sources = new int[200];
+        int[] sinks = new int[sources.length];
+        int[] expected = new int[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = random.nextInt(40);
+            sinks[i] = random.nextInt(40);
+            expected[i] = Dinic.maxFlow(new ResidualNetwork(G), sources[i], sinks[i], Integer.MAX_VALUE);
+        }
+
+        int[] flows = IntStream.range(0, sources.length).parallel().map(i -> {
+            ResidualNetwork network = pool.acquire();
+            try {
+                MaxFlowTest.assertFlow(network, sources[i], sinks[i], 0);
+                return Dinic.maxFlow(network, sources[i], sinks[i], Integer.MAX_VALUE);
+            } finally {
+                pool.release(network);
+            }
+        }).toArray();
+        assertArrayEquals(expected, flows);
+    }
+
+    @Test
+    void derivedNetworksKeepTheirCapacitiesWhileTheOriginalChanges() throws InterruptedException {
+        CompactDigraph G = TestNetworks.random(new Random(95), 30, 300, 10, false).compact();
+        ResidualNetwork network = new ResidualNetwork(G);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 20000; i++) {
+                int a = 2 * (i % G.numberEdges());
+                network.setCapacity(a, network.capacity(a) + 1);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 200; i++) {
+                ResidualNetwork derived = network.withoutFlow();
+                for (int a = 0; a < derived.numberArcs(); a += 2) {
+                    assertEquals(derived.capacity(a), derived.residualCapacity(a), "arc " + a);
+                }
+            }
+        } finally {
+            writer.join();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.Random;
+
+/**
+ * Seeded random networks for the tests. Vertex 0 is the source and vertex nodes - 1 the sink.
+ */
+class TestNetworks {
+
+    private TestNetworks() {
+    }
+
+    /**
+     * Random network whose costs are non-negative costs shifted by vertex potentials, so they can be negative
+     * without forming a negative cycle
+     */
+    static Digraph random(Random random, int nodes, int edges, int maxCapacity, boolean negativeCosts) {
+        int[] potential = new int[nodes];
+        for (int v = 0; v < nodes; v++) {
+            potential[v] = negativeCosts ? random.nextInt(15) : 0;
+        }
+
+        Digraph G = new Digraph();
+        G.addEdge(new DirectedEdge(nodes - 1, 0, 0, 0));    // makes sure all vertices up to the sink exist
+        for (int i = 0; i < edges; i++) {
+            int u = random.nextInt(nodes);
+            int v = random.nextInt(nodes);
+            if (u != v) {
+                int costs = random.nextInt(20) + potential[u] - potential[v];
+                G.addEdge(new DirectedEdge(u, v, 1 + random.nextInt(maxCapacity), costs));
+            }
+        }
+        return G;
+    }
+
+    /**
+     * Unit capacity bipartite matching network with left vertices 0 .. left - 1, right vertices left .. left + right - 1,
+     * source left + right and sink left + right + 1
+     */
+    static Digraph bipartite(Random random, int left, int right, int edges) {
+        Digraph G = new Digraph();
+        int source = left + right;
+        int sink = source + 1;
+        for (int l = 0; l < left; l++) {
+            G.addEdge(new DirectedEdge(source, l, 1, 0));
+        }
+        for (int r = 0; r < right; r++) {
+            G.addEdge(new DirectedEdge(left + r, sink, 1, 0));
+        }
+        for (int i = 0; i < edges; i++) {
+            G.addEdge(new DirectedEdge(random.nextInt(left), left + random.nextInt(right), 1, 0));
+        }
+        return G;
+    }
+}